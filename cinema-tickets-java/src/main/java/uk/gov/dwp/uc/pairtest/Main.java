@@ -1,16 +1,16 @@
 package uk.gov.dwp.uc.pairtest;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Scanner;
 
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.paymentgateway.TicketPaymentServiceImpl;
 import thirdparty.seatbooking.SeatReservationService;
 import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
 import uk.gov.dwp.uc.pairtest.domain.TicketType;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.ticket.TicketBarcode;
 
 public class Main {
     public static void main(String[] args) {
@@ -41,16 +41,26 @@ public class Main {
             System.out.print("Enter number of infant tickets: ");
             int infantTickets = scanner.nextInt();
 
-            // Create TicketTypeRequest objects
-            List<TicketTypeRequest> ticketRequests = new ArrayList<>();
-            ticketRequests.add(new TicketTypeRequest(TicketType.ADULT, adultTickets));
-            ticketRequests.add(new TicketTypeRequest(TicketType.CHILD, childTickets));
-            ticketRequests.add(new TicketTypeRequest(TicketType.INFANT, infantTickets));
+            // Shared TicketTypeRequest objects; no new instances for valid counts
+            TicketTypeRequest[] ticketRequests = {
+                    TicketTypeRequest.of(TicketType.ADULT, adultTickets),
+                    TicketTypeRequest.of(TicketType.CHILD, childTickets),
+                    TicketTypeRequest.of(TicketType.INFANT, infantTickets)
+            };
 
             // Call the purchaseTickets method
-            ticketService.purchaseTickets(accountId, ticketRequests.toArray(new TicketTypeRequest[0]));
+            PurchaseResult result = ticketService.purchaseTickets(accountId, ticketRequests);
 
             System.out.println("Purchase successful!");
+
+            // Print each ticket's ID and barcode. Every barcode is encoded into one buffer and its
+            // chars are printed directly, without copying them into a String
+            char[] barcode = new char[TicketBarcode.LENGTH];
+            for (int i = 0; i < result.getTicketCount(); i++) {
+                TicketBarcode.encode(result.getTicketId(i), barcode, 0);
+                System.out.print("   " + result.getTicketType(i) + " ticket " + result.getTicketId(i) + " barcode ");
+                System.out.println(barcode);
+            }
         } catch (IllegalArgumentException | InvalidPurchaseException e) {
             System.err.println("Error Invalid Purchase: " + e.getMessage());
         } finally {
@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+
+/**
+ * Notified by TicketServiceImpl after a purchase has been paid for and its
+ * seats reserved.
+ *
+ * Called once per ticket type in the purchase (types with no tickets are
+ * skipped) on the purchasing thread, so implementations must be thread safe
+ * and quick. An exception thrown by the listener is logged and does not fail
+ * the purchase.
+ */
+public interface PurchaseListener {
+
+    PurchaseListener NONE = (accountId, ticketType, noOfTickets, amount) -> {
+    };
+
+    /**
+     * @param accountId   the purchasing account
+     * @param ticketType  the type of ticket purchased
+     * @param noOfTickets number of tickets of this type
+     * @param amount      amount paid for these tickets
+     */
+    void onTicketsPurchased(long accountId, TicketType ticketType, int noOfTickets, int amount);
+}
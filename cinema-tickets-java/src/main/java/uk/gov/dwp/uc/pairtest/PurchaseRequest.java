@@ -0,0 +1,104 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.pricing.PriceQuote;
+
+/**
+ * Immutable purchase for {@link TicketServiceImpl#purchaseTickets(PurchaseRequest)}:
+ * the account, the tickets (as TicketTypeRequests or a packed
+ * {@link TicketOrder}) and, optionally, a promo code and a price quote.
+ *
+ * The ticket requests array is not copied, so it must not be modified after
+ * the request is created.
+ */
+public final class PurchaseRequest {
+
+    private final Long accountId;
+    private final TicketTypeRequest[] ticketTypeRequests;
+    private final long order;
+    private final boolean packedOrder;
+    private final String promoCode;
+    private final PriceQuote quote;
+
+    private PurchaseRequest(Long accountId, TicketTypeRequest[] ticketTypeRequests, long order, boolean packedOrder,
+            String promoCode, PriceQuote quote) {
+        this.accountId = accountId;
+        this.ticketTypeRequests = ticketTypeRequests;
+        this.order = order;
+        this.packedOrder = packedOrder;
+        this.promoCode = promoCode;
+        this.quote = quote;
+    }
+
+    /**
+     * @param accountId          the purchasing account
+     * @param ticketTypeRequests the tickets requested
+     * @return a request at standard prices with no promo code
+     */
+    public static PurchaseRequest of(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return new PurchaseRequest(accountId, ticketTypeRequests, TicketOrder.EMPTY, false, null, null);
+    }
+
+    /**
+     * @param accountId the purchasing account
+     * @param order     the tickets, packed with {@link TicketOrder}
+     * @return a request at standard prices with no promo code
+     */
+    public static PurchaseRequest ofOrder(Long accountId, long order) {
+        return new PurchaseRequest(accountId, null, order, true, null, null);
+    }
+
+    /**
+     * @param promoCode promo code entered by the customer, or null for none
+     * @return a copy of this request with the promo code
+     */
+    public PurchaseRequest withPromoCode(String promoCode) {
+        return new PurchaseRequest(accountId, ticketTypeRequests, order, packedOrder, promoCode, quote);
+    }
+
+    /**
+     * @param quote the price quote shown to the customer, or null for standard prices
+     * @return a copy of this request charged at the quoted prices
+     */
+    public PurchaseRequest withQuote(PriceQuote quote) {
+        return new PurchaseRequest(accountId, ticketTypeRequests, order, packedOrder, promoCode, quote);
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return whether the tickets are a packed order rather than TicketTypeRequests
+     */
+    public boolean isPackedOrder() {
+        return packedOrder;
+    }
+
+    /**
+     * @return the tickets requested, or null for a packed order
+     */
+    public TicketTypeRequest[] getTicketTypeRequests() {
+        return ticketTypeRequests == null ? null : ticketTypeRequests.clone();
+    }
+
+    TicketTypeRequest[] ticketTypeRequests() {
+        return ticketTypeRequests;
+    }
+
+    /**
+     * @return the packed order, or {@link TicketOrder#EMPTY} if the tickets are TicketTypeRequests
+     */
+    public long getOrder() {
+        return order;
+    }
+
+    public String getPromoCode() {
+        return promoCode;
+    }
+
+    public PriceQuote getQuote() {
+        return quote;
+    }
+}
@@ -2,51 +2,310 @@ package uk.gov.dwp.uc.pairtest;
 
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.discount.DiscountEngine;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
 import uk.gov.dwp.uc.pairtest.domain.TicketType;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.jfr.PaymentEvent;
+import uk.gov.dwp.uc.pairtest.jfr.PurchaseEvent;
+import uk.gov.dwp.uc.pairtest.jfr.PurchaseTotalsEvent;
+import uk.gov.dwp.uc.pairtest.jfr.PurchaseValidationEvent;
+import uk.gov.dwp.uc.pairtest.jfr.ReservationEvent;
+import uk.gov.dwp.uc.pairtest.pricing.DynamicPricing;
+import uk.gov.dwp.uc.pairtest.pricing.PriceQuote;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
 
 public class TicketServiceImpl implements TicketService {
 
-    private static final int MAX_TICKETS_PER_PURCHASE = 25;
+    // Shared so that every TicketServiceImpl in this JVM without its own generator issues unique IDs.
+    // Created on first use, so a missing node ID fails the constructor rather than class loading.
+    private static TicketIdGenerator defaultIdGenerator;
 
     private final TicketPaymentService paymentService;
     private final SeatReservationService reservationService;
+    private final PurchaseListener purchaseListener;
+    private final TicketIdGenerator ticketIdGenerator;
+    private final DiscountEngine discountEngine;
+    private final DynamicPricing dynamicPricing;
 
-    // Constructor for dependency injection
+    // Constructor for dependency injection; ticket IDs use the node ID set with -Dtickets.nodeId.
+    // Use builder() to supply a TicketIdGenerator or the other optional collaborators.
     public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService reservationService) {
-        this.paymentService = paymentService;
-        this.reservationService = reservationService;
+        this(builder(paymentService, reservationService));
+    }
+
+    private TicketServiceImpl(Builder builder) {
+        this.paymentService = builder.paymentService;
+        this.reservationService = builder.reservationService;
+        this.purchaseListener = builder.purchaseListener;
+        this.ticketIdGenerator = builder.ticketIdGenerator != null ? builder.ticketIdGenerator : defaultIdGenerator();
+        this.discountEngine = builder.discountEngine != null ? builder.discountEngine : new DiscountEngine();
+        this.dynamicPricing = builder.dynamicPricing;
+    }
+
+    private static synchronized TicketIdGenerator defaultIdGenerator() {
+        if (defaultIdGenerator == null) {
+            defaultIdGenerator = TicketIdGenerator.fromSystemProperty();
+        }
+        return defaultIdGenerator;
+    }
+
+    /**
+     * @param paymentService     takes payment for each purchase
+     * @param reservationService reserves the seats for each purchase
+     * @return a builder for a service with the given payment and reservation services
+     */
+    public static Builder builder(TicketPaymentService paymentService, SeatReservationService reservationService) {
+        return new Builder(paymentService, reservationService);
     }
 
     @Override
-    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests)
+    public PurchaseResult purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests)
             throws InvalidPurchaseException {
+        return purchaseRequests(accountId, null, null, ticketTypeRequests);
+    }
 
-        validateAccountId(accountId);
+    /**
+     * Purchases an order packed with {@link TicketOrder}, validating and
+     * pricing it without building TicketTypeRequests.
+     *
+     * @param accountId the purchasing account
+     * @param order     the packed order
+     * @return the tickets issued
+     * @throws InvalidPurchaseException if the purchase is invalid
+     */
+    public PurchaseResult purchaseTickets(Long accountId, long order) throws InvalidPurchaseException {
+        return purchaseOrder(accountId, null, null, order);
+    }
 
-        validateTicketRequests(ticketTypeRequests);
+    /**
+     * Purchases tickets with the request's promo code and price quote, if any.
+     *
+     * Any group rate the order qualifies for is applied whether or not a promo
+     * code is given. With a quote from the DynamicPricing given to this
+     * service, the customer is charged exactly the quoted prices (less any
+     * discounts), or the purchase is rejected with a PriceChangedException if
+     * the order would now land on another price step.
+     *
+     * @param request the purchase
+     * @return the tickets issued
+     * @throws InvalidPurchaseException if the purchase is invalid, the promo code is not active, or the
+     *                                  tickets do not match the quote or the price has changed
+     */
+    public PurchaseResult purchaseTickets(PurchaseRequest request) throws InvalidPurchaseException {
+        if (request.isPackedOrder()) {
+            return purchaseOrder(request.getAccountId(), request.getQuote(), request.getPromoCode(),
+                    request.getOrder());
+        }
+        return purchaseRequests(request.getAccountId(), request.getQuote(), request.getPromoCode(),
+                request.ticketTypeRequests());
+    }
 
-        // Calculate totals
-        TicketTotals totals = calculateTotals(ticketTypeRequests);
+    private PurchaseResult purchaseRequests(Long accountId, PriceQuote quote, String promoCode,
+            TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        // JFR events are cheap to create; commit() does nothing unless they are enabled
+        PurchaseEvent purchaseEvent = beginPurchaseEvent(accountId);
+        try {
+            TicketTotals totals = validatePurchase(accountId, ticketTypeRequests);
+            return completePurchase(accountId, quote, promoCode, totals, purchaseEvent);
+        } catch (InvalidPurchaseException e) {
+            recordRejection(purchaseEvent, e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            recordFailure(purchaseEvent, e);
+            throw e;
+        } finally {
+            purchaseEvent.commit();
+        }
+    }
 
-        validateTicketPurchaseLimits(totals.totalTickets);
+    private PurchaseResult purchaseOrder(Long accountId, PriceQuote quote, String promoCode, long order)
+            throws InvalidPurchaseException {
+        PurchaseEvent purchaseEvent = beginPurchaseEvent(accountId);
+        try {
+            TicketTotals totals = validatePurchase(accountId, order);
+            return completePurchase(accountId, quote, promoCode, totals, purchaseEvent);
+        } catch (InvalidPurchaseException e) {
+            recordRejection(purchaseEvent, e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            recordFailure(purchaseEvent, e);
+            throw e;
+        } finally {
+            purchaseEvent.commit();
+        }
+    }
 
-        validateAdultPresence(totals.adultTickets, totals.childTickets, totals.infantTickets);
+    private PurchaseResult completePurchase(Long accountId, PriceQuote quote, String promoCode, TicketTotals totals,
+            PurchaseEvent purchaseEvent) throws InvalidPurchaseException {
+        if (quote != null) {
+            applyQuotedPrices(totals, quote);
+        }
+        applyDiscounts(totals, promoCode);
+        purchaseEvent.adultTickets = totals.adultTickets;
+        purchaseEvent.childTickets = totals.childTickets;
+        purchaseEvent.infantTickets = totals.infantTickets;
+        purchaseEvent.totalAmount = totals.totalAmount;
 
-        validateInfantToAdultRatio(totals.adultTickets, totals.infantTickets);
+        // Claim the seats at the quoted prices, or reject if the price has moved
+        if (quote != null) {
+            dynamicPricing.charge(quote);
+        }
 
         logPurchaseDetails(accountId, totals.totalTickets, totals.totalAmount, totals.totalSeats,
                 totals.adultTickets, totals.childTickets, totals.infantTickets);
 
         // If all validations pass, proceed with the purchase
-        // Make payment request
-        paymentService.makePayment(accountId, totals.totalAmount);
+        try {
+            // Make payment request
+            makePayment(accountId, totals.totalAmount);
+
+            // Make seat reservation request
+            reserveSeats(accountId, totals.totalSeats);
+        } catch (RuntimeException | Error e) {
+            if (quote != null) {
+                dynamicPricing.release(quote);
+            }
+            throw e;
+        }
+
+        PurchaseResult result = issueTickets(accountId, totals);
 
-        // Make seat reservation request
-        reservationService.reserveSeat(accountId, totals.totalSeats);
+        notifyPurchaseListener(accountId, totals);
+        purchaseEvent.outcome = PurchaseEvent.SUCCESS;
 
         System.out.println("Ticket Service completed:");
+        return result;
+    }
+
+    private static PurchaseEvent beginPurchaseEvent(Long accountId) {
+        PurchaseEvent purchaseEvent = new PurchaseEvent();
+        purchaseEvent.begin();
+        purchaseEvent.accountId = accountId == null ? 0 : accountId;
+        return purchaseEvent;
+    }
+
+    private static void recordRejection(PurchaseEvent purchaseEvent, InvalidPurchaseException e) {
+        purchaseEvent.outcome = PurchaseEvent.REJECTED;
+        purchaseEvent.rejectionReason = e.getMessage();
+    }
+
+    private static void recordFailure(PurchaseEvent purchaseEvent, Throwable e) {
+        purchaseEvent.outcome = PurchaseEvent.FAILED;
+        purchaseEvent.rejectionReason = e.toString();
+    }
+
+    private void applyQuotedPrices(TicketTotals totals, PriceQuote quote) throws InvalidPurchaseException {
+        if (dynamicPricing == null) {
+            throw new IllegalStateException("Dynamic pricing is not configured");
+        }
+        if (quote.getTickets(TicketType.ADULT) != totals.adultTickets
+                || quote.getTickets(TicketType.CHILD) != totals.childTickets) {
+            throw new InvalidPurchaseException("Price quote does not match the tickets requested");
+        }
+        totals.adultAmount = totals.adultTickets * quote.getPrice(TicketType.ADULT);
+        totals.childAmount = totals.childTickets * quote.getPrice(TicketType.CHILD);
+        totals.totalAmount = totals.adultAmount + totals.childAmount;
+    }
+
+    private void applyDiscounts(TicketTotals totals, String promoCode) throws InvalidPurchaseException {
+        // Only paid tickets count towards a group rate
+        int discountedAmount = discountEngine.apply(totals.adultTickets + totals.childTickets, totals.totalAmount,
+                promoCode);
+        if (discountedAmount == totals.totalAmount) {
+            return;
+        }
+        // Share the discount between adult and child tickets in proportion to their amounts
+        totals.adultAmount = (int) ((long) totals.adultAmount * discountedAmount / totals.totalAmount);
+        totals.childAmount = discountedAmount - totals.adultAmount;
+        totals.totalAmount = discountedAmount;
+    }
+
+    private PurchaseResult issueTickets(long accountId, TicketTotals totals) {
+        // One ID per ticket, issued in a single batch into an array the result takes over
+        long[] ticketIds = new long[totals.totalTickets];
+        ticketIdGenerator.nextIds(ticketIds, 0, ticketIds.length);
+        return PurchaseResult.wrap(accountId, totals.adultTickets, totals.childTickets, totals.infantTickets,
+                totals.totalAmount, ticketIds);
+    }
+
+    private TicketTotals validatePurchase(Long accountId, TicketTypeRequest... ticketTypeRequests)
+            throws InvalidPurchaseException {
+        PurchaseValidationEvent validationEvent = beginValidationEvent(accountId);
+        try {
+            validateAccountId(accountId);
+
+            validateTicketRequests(ticketTypeRequests);
+
+            return validateOrder(accountId, TicketOrder.of(ticketTypeRequests), validationEvent);
+        } catch (InvalidPurchaseException e) {
+            validationEvent.rejectionReason = e.getMessage();
+            throw e;
+        } finally {
+            validationEvent.commit();
+        }
+    }
+
+    private TicketTotals validatePurchase(Long accountId, long order) throws InvalidPurchaseException {
+        PurchaseValidationEvent validationEvent = beginValidationEvent(accountId);
+        try {
+            validateAccountId(accountId);
+
+            return validateOrder(accountId, order, validationEvent);
+        } catch (InvalidPurchaseException e) {
+            validationEvent.rejectionReason = e.getMessage();
+            throw e;
+        } finally {
+            validationEvent.commit();
+        }
+    }
+
+    private TicketTotals validateOrder(Long accountId, long order, PurchaseValidationEvent validationEvent)
+            throws InvalidPurchaseException {
+        // Calculate totals
+        TicketTotals totals = calculateTotals(accountId, order);
+        validationEvent.totalTickets = totals.totalTickets;
+
+        // Ticket limits, adult presence and infant-to-adult ratio
+        TicketOrder.validate(order);
+
+        validationEvent.passed = true;
+        return totals;
+    }
+
+    private static PurchaseValidationEvent beginValidationEvent(Long accountId) {
+        PurchaseValidationEvent validationEvent = new PurchaseValidationEvent();
+        validationEvent.begin();
+        validationEvent.accountId = accountId == null ? 0 : accountId;
+        return validationEvent;
+    }
+
+    private void makePayment(long accountId, int totalAmount) {
+        PaymentEvent paymentEvent = new PaymentEvent();
+        paymentEvent.begin();
+        paymentEvent.accountId = accountId;
+        paymentEvent.amount = totalAmount;
+        try {
+            paymentService.makePayment(accountId, totalAmount);
+            paymentEvent.succeeded = true;
+        } finally {
+            paymentEvent.commit();
+        }
+    }
+
+    private void reserveSeats(long accountId, int totalSeats) {
+        ReservationEvent reservationEvent = new ReservationEvent();
+        reservationEvent.begin();
+        reservationEvent.accountId = accountId;
+        reservationEvent.seats = totalSeats;
+        try {
+            reservationService.reserveSeat(accountId, totalSeats);
+            reservationEvent.succeeded = true;
+        } finally {
+            reservationEvent.commit();
+        }
     }
 
     private static class TicketTotals {
@@ -56,32 +315,30 @@ public class TicketServiceImpl implements TicketService {
         int adultTickets = 0;
         int childTickets = 0;
         int infantTickets = 0;
+        int adultAmount = 0;
+        int childAmount = 0;
     }
 
-    private TicketTotals calculateTotals(TicketTypeRequest... ticketTypeRequests) {
+    private TicketTotals calculateTotals(Long accountId, long order) {
+        PurchaseTotalsEvent totalsEvent = new PurchaseTotalsEvent();
+        totalsEvent.begin();
         TicketTotals totals = new TicketTotals();
 
-        for (TicketTypeRequest request : ticketTypeRequests) {
-            int tickets = request.getNoOfTickets();
-            totals.totalTickets += tickets;
-
-            switch (request.getTicketType()) {
-                case ADULT:
-                    totals.adultTickets += tickets;
-                    totals.totalAmount += tickets * TicketType.ADULT.getPrice();
-                    totals.totalSeats += tickets;
-                    break;
-                case CHILD:
-                    totals.childTickets += tickets;
-                    totals.totalAmount += tickets * TicketType.CHILD.getPrice();
-                    totals.totalSeats += tickets;
-                    break;
-                case INFANT:
-                    totals.infantTickets += tickets;
-                    // Infants do not pay or occupy a seat
-                    break;
-            }
-        }
+        totals.adultTickets = TicketOrder.getAdultTickets(order);
+        totals.childTickets = TicketOrder.getChildTickets(order);
+        totals.infantTickets = TicketOrder.getInfantTickets(order);
+        totals.totalTickets = TicketOrder.getTotalTickets(order);
+        totals.adultAmount = totals.adultTickets * TicketType.ADULT.getPrice();
+        totals.childAmount = totals.childTickets * TicketType.CHILD.getPrice();
+        // Infants do not pay or occupy a seat
+        totals.totalAmount = TicketOrder.getTotalAmount(order);
+        totals.totalSeats = TicketOrder.getTotalSeats(order);
+
+        totalsEvent.accountId = accountId;
+        totalsEvent.totalTickets = totals.totalTickets;
+        totalsEvent.totalAmount = totals.totalAmount;
+        totalsEvent.totalSeats = totals.totalSeats;
+        totalsEvent.commit();
         return totals;
     }
 
@@ -97,28 +354,81 @@ public class TicketServiceImpl implements TicketService {
         }
     }
 
-    private void validateTicketPurchaseLimits(int totalTickets) throws InvalidPurchaseException {
-        if (totalTickets == 0) {
-            throw new InvalidPurchaseException("At least one ticket must be purchased");
+    private void notifyPurchaseListener(long accountId, TicketTotals totals) {
+        if (totals.adultTickets > 0) {
+            notifyPurchaseListener(accountId, TicketType.ADULT, totals.adultTickets, totals.adultAmount);
+        }
+        if (totals.childTickets > 0) {
+            notifyPurchaseListener(accountId, TicketType.CHILD, totals.childTickets, totals.childAmount);
         }
-        if (totalTickets > MAX_TICKETS_PER_PURCHASE) {
-            throw new InvalidPurchaseException("Maximum of " + MAX_TICKETS_PER_PURCHASE + " tickets per purchase");
+        if (totals.infantTickets > 0) {
+            notifyPurchaseListener(accountId, TicketType.INFANT, totals.infantTickets, 0);
         }
     }
 
-    private void validateAdultPresence(int adultTickets, int childTickets, int infantTickets)
-            throws InvalidPurchaseException {
-        // Ensure at least one adult ticket is purchased with child/infant tickets
-        if (adultTickets == 0 && (childTickets > 0 || infantTickets > 0)) {
-            throw new InvalidPurchaseException("Child or Infant tickets cannot be purchased without an Adult ticket");
+    private void notifyPurchaseListener(long accountId, TicketType ticketType, int noOfTickets, int amount) {
+        // The purchase is already paid for and reserved, so a listener failure must not fail it
+        try {
+            purchaseListener.onTicketsPurchased(accountId, ticketType, noOfTickets, amount);
+        } catch (RuntimeException e) {
+            System.err.println("Purchase listener failed: Account ID = " + accountId + ", " + ticketType + ": " + e);
         }
     }
 
-    private void validateInfantToAdultRatio(int adultTickets, int infantTickets) throws InvalidPurchaseException {
-        // Every infant must be accompanied by an adult - as they are seated on adults
-        // lap
-        if (infantTickets > adultTickets) {
-            throw new InvalidPurchaseException("Each infant must be accompanied by an adult");
+    /**
+     * Collaborators for a TicketServiceImpl. Only the payment and reservation
+     * services are required; by default there is no purchase listener, ticket
+     * IDs come from this JVM's shared generator for -Dtickets.nodeId, no
+     * promo codes or group rates apply and quotes cannot be charged.
+     */
+    public static final class Builder {
+
+        private final TicketPaymentService paymentService;
+        private final SeatReservationService reservationService;
+        private PurchaseListener purchaseListener = PurchaseListener.NONE;
+        private TicketIdGenerator ticketIdGenerator;
+        private DiscountEngine discountEngine;
+        private DynamicPricing dynamicPricing;
+
+        private Builder(TicketPaymentService paymentService, SeatReservationService reservationService) {
+            this.paymentService = paymentService;
+            this.reservationService = reservationService;
+        }
+
+        /**
+         * @param purchaseListener notified of each successful purchase
+         */
+        public Builder purchaseListener(PurchaseListener purchaseListener) {
+            this.purchaseListener = purchaseListener;
+            return this;
+        }
+
+        /**
+         * @param ticketIdGenerator issues the ticket IDs
+         */
+        public Builder ticketIdGenerator(TicketIdGenerator ticketIdGenerator) {
+            this.ticketIdGenerator = ticketIdGenerator;
+            return this;
+        }
+
+        /**
+         * @param discountEngine the promo codes and group rates to apply
+         */
+        public Builder discountEngine(DiscountEngine discountEngine) {
+            this.discountEngine = discountEngine;
+            return this;
+        }
+
+        /**
+         * @param dynamicPricing occupancy-driven prices for purchases made with a quote
+         */
+        public Builder dynamicPricing(DynamicPricing dynamicPricing) {
+            this.dynamicPricing = dynamicPricing;
+            return this;
+        }
+
+        public TicketServiceImpl build() {
+            return new TicketServiceImpl(this);
         }
     }
 
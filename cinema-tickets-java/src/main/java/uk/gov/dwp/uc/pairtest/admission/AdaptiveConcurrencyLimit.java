@@ -0,0 +1,158 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+/**
+ * Concurrency limit that adapts to observed latency using a gradient algorithm.
+ *
+ * The lowest recent latency is taken as the "no load" latency of the downstream
+ * (payment gateway and seat reservation). When latency rises above it, requests
+ * are queueing downstream, so the limit is scaled down by the ratio between the
+ * two; when latency stays close to it, the limit grows by roughly its square
+ * root. The limit settles where adding more concurrent requests would only add
+ * queueing, which keeps throughput near its peak while latency stays bounded.
+ *
+ * Samples are averaged over a window of roughly one limit's worth of requests
+ * and the limit is updated once per window. Updating on every sample would let
+ * a burst of completions (e.g. a whole batch admitted in the same instant)
+ * move the limit many times on what is really a single observation.
+ *
+ * A dropped request (timeout or error) in a window is treated as a strong
+ * overload signal and cuts the limit multiplicatively.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_BACKOFF = 0.9;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int baselineWindow;
+
+    private volatile int limit;
+    private double estimatedLimit;
+
+    // No-load latency is the minimum over the current and previous baseline
+    // windows, so it can recover if the downstream gets permanently slower.
+    private long currentWindowMinRtt = Long.MAX_VALUE;
+    private long previousWindowMinRtt = Long.MAX_VALUE;
+    private int samplesInBaselineWindow;
+
+    // Samples collected since the limit was last updated
+    private int windowSamples;
+    private int windowRttSamples;
+    private long windowRttSum;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    /**
+     * Creates a limit with default tuning: tolerance 1.5, smoothing 0.2 and a
+     * baseline window of 100,000 samples.
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.5, 0.2, 100_000);
+    }
+
+    /**
+     * @param initialLimit   limit before any samples have been seen
+     * @param minLimit       the limit never drops below this
+     * @param maxLimit       the limit never grows above this
+     * @param tolerance      how much latency above the no-load latency is accepted before backing off
+     * @param smoothing      weight (0..1] given to each new limit estimate
+     * @param baselineWindow number of samples after which the no-load latency is re-learnt
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+            int baselineWindow) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1.0) {
+            throw new IllegalArgumentException("Tolerance must be at least 1");
+        }
+        if (smoothing <= 0.0 || smoothing > 1.0) {
+            throw new IllegalArgumentException("Smoothing must be in (0, 1]");
+        }
+        if (baselineWindow < 1) {
+            throw new IllegalArgumentException("Baseline window must be positive");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.baselineWindow = baselineWindow;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Current maximum number of concurrent requests.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Records the latency of a completed request.
+     *
+     * @param rttNanos latency of the request
+     * @param inFlight number of requests in flight, including this one
+     */
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        updateBaseline(rttNanos);
+        windowRttSum += rttNanos;
+        windowRttSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        endOfSample();
+    }
+
+    /**
+     * Records a request that timed out or failed because the downstream was
+     * overloaded.
+     */
+    public synchronized void onDropped() {
+        windowDropped = true;
+        endOfSample();
+    }
+
+    private void endOfSample() {
+        if (++windowSamples < Math.max(MIN_WINDOW_SAMPLES, (int) estimatedLimit)) {
+            return;
+        }
+        if (windowDropped) {
+            setEstimate(estimatedLimit * DROP_BACKOFF);
+        } else if (windowMaxInFlight * 2 >= estimatedLimit) {
+            // Latency says nothing about capacity if we were not using the limit
+            long minRtt = Math.min(currentWindowMinRtt, previousWindowMinRtt);
+            double averageRtt = (double) windowRttSum / windowRttSamples;
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * minRtt / averageRtt));
+            double queueAllowance = Math.sqrt(estimatedLimit);
+            double newLimit = estimatedLimit * gradient + queueAllowance;
+            setEstimate(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+        }
+        windowSamples = 0;
+        windowRttSamples = 0;
+        windowRttSum = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    private void updateBaseline(long rttNanos) {
+        if (rttNanos < currentWindowMinRtt) {
+            currentWindowMinRtt = rttNanos;
+        }
+        if (++samplesInBaselineWindow >= baselineWindow) {
+            previousWindowMinRtt = currentWindowMinRtt;
+            currentWindowMinRtt = Long.MAX_VALUE;
+            samplesInBaselineWindow = 0;
+        }
+    }
+
+    private void setEstimate(double estimate) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimate));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.util.function.Supplier;
+
+import uk.gov.dwp.uc.pairtest.PurchaseRequest;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.AdmissionRejectedException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * TicketService decorator that puts an AdmissionController in front of
+ * purchaseTickets, so that a sudden spike in demand is shed (or briefly
+ * queued) instead of piling up on the payment gateway.
+ *
+ * Every purchase path of TicketServiceImpl is exposed here, including packed
+ * orders and purchases with a promo code or price quote, so callers holding
+ * this service never need the unguarded delegate.
+ */
+public class AdmissionControlledTicketService implements TicketService {
+
+    private final TicketServiceImpl delegate;
+    private final AdmissionController admissionController;
+
+    public AdmissionControlledTicketService(TicketServiceImpl delegate, AdmissionController admissionController) {
+        this.delegate = delegate;
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * @throws AdmissionRejectedException if the service is at capacity
+     */
+    @Override
+    public PurchaseResult purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests)
+            throws InvalidPurchaseException {
+        return admit(() -> delegate.purchaseTickets(accountId, ticketTypeRequests));
+    }
+
+    /**
+     * @see TicketServiceImpl#purchaseTickets(Long, long)
+     * @throws AdmissionRejectedException if the service is at capacity
+     */
+    public PurchaseResult purchaseTickets(Long accountId, long order) throws InvalidPurchaseException {
+        return admit(() -> delegate.purchaseTickets(accountId, order));
+    }
+
+    /**
+     * @see TicketServiceImpl#purchaseTickets(PurchaseRequest)
+     * @throws AdmissionRejectedException if the service is at capacity
+     */
+    public PurchaseResult purchaseTickets(PurchaseRequest request) throws InvalidPurchaseException {
+        return admit(() -> delegate.purchaseTickets(request));
+    }
+
+    private PurchaseResult admit(Supplier<PurchaseResult> purchase) {
+        admissionController.acquire();
+
+        long start = System.nanoTime();
+        PurchaseResult result;
+        try {
+            result = purchase.get();
+        } catch (InvalidPurchaseException e) {
+            // Rejected by validation, never reached the gateway
+            admissionController.onIgnored();
+            throw e;
+        } catch (RuntimeException | Error e) {
+            admissionController.onDropped();
+            throw e;
+        }
+        admissionController.onSuccess(System.nanoTime() - start);
+        return result;
+    }
+}
@@ -0,0 +1,193 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import uk.gov.dwp.uc.pairtest.exception.AdmissionRejectedException;
+
+/**
+ * Admits requests up to an adaptive concurrency limit.
+ *
+ * Requests over the limit are either rejected immediately or, if a queue is
+ * configured, wait a bounded time for a slot. Queued requests are admitted in
+ * arrival order: a new request only takes a free slot directly when nobody is
+ * waiting, and each waiter that gets a slot passes the turn to the next, so a
+ * higher limit admits as many waiters as it has room for. Every admitted request must be
+ * completed with exactly one of {@link #onSuccess(long)}, {@link #onDropped()}
+ * or {@link #onIgnored()}.
+ */
+public class AdmissionController {
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxQueued;
+    private final long maxQueueWaitNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    // One condition per queued request, oldest first; guarded by lock
+    private final ArrayDeque<Condition> waiters = new ArrayDeque<>();
+
+    /**
+     * Creates a controller that rejects requests over the limit immediately.
+     */
+    public AdmissionController(AdaptiveConcurrencyLimit limit) {
+        this(limit, 0, Duration.ZERO);
+    }
+
+    /**
+     * @param limit        the adaptive limit
+     * @param maxQueued    maximum number of requests waiting for a slot (0 to shed immediately)
+     * @param maxQueueWait longest time a request waits for a slot
+     */
+    public AdmissionController(AdaptiveConcurrencyLimit limit, int maxQueued, Duration maxQueueWait) {
+        if (maxQueued < 0 || maxQueueWait.isNegative()) {
+            throw new IllegalArgumentException("Queue size and wait must not be negative");
+        }
+        this.limit = limit;
+        this.maxQueued = maxQueued;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+    }
+
+    /**
+     * Takes a slot if one is free, even if other requests are queued for one.
+     *
+     * @return true if the request was admitted
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if configured.
+     *
+     * @throws AdmissionRejectedException if no slot could be obtained
+     */
+    public void acquire() throws AdmissionRejectedException {
+        if (maxQueued == 0) {
+            if (tryAcquire()) {
+                return;
+            }
+            throw new AdmissionRejectedException("Service is at capacity, please try again later",
+                    AdmissionRejectedException.Reason.LIMIT_EXCEEDED);
+        }
+        // Do not overtake requests that are already waiting
+        if (queued.get() == 0 && tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new AdmissionRejectedException("Service is at capacity and the queue is full",
+                    AdmissionRejectedException.Reason.QUEUE_FULL);
+        }
+        try {
+            awaitSlot();
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void awaitSlot() throws AdmissionRejectedException {
+        long remaining = maxQueueWaitNanos;
+        lock.lock();
+        Condition turn = lock.newCondition();
+        waiters.addLast(turn);
+        try {
+            // Only the oldest waiter may take a slot
+            while (waiters.peekFirst() != turn || !tryAcquire()) {
+                if (remaining <= 0) {
+                    throw new AdmissionRejectedException("Timed out waiting for capacity",
+                            AdmissionRejectedException.Reason.QUEUE_TIMEOUT);
+                }
+                remaining = turn.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AdmissionRejectedException("Interrupted waiting for capacity",
+                    AdmissionRejectedException.Reason.QUEUE_TIMEOUT, e);
+        } finally {
+            boolean wasOldest = waiters.peekFirst() == turn;
+            waiters.remove(turn);
+            if (wasOldest) {
+                // There may be another free slot, or we are giving ours up by timing out
+                signalOldest();
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Completes an admitted request that reached the downstream services.
+     *
+     * @param rttNanos how long the request took
+     */
+    public void onSuccess(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        limit.onSample(rttNanos, current);
+        signalWaiter();
+    }
+
+    /**
+     * Completes an admitted request that timed out or failed downstream.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        limit.onDropped();
+        signalWaiter();
+    }
+
+    /**
+     * Completes an admitted request whose latency says nothing about downstream
+     * capacity, e.g. one rejected by validation before any payment was taken.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+        signalWaiter();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    private void signalWaiter() {
+        if (queued.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            signalOldest();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with lock held
+    private void signalOldest() {
+        Condition oldest = waiters.peekFirst();
+        if (oldest != null) {
+            oldest.signal();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionController[limit=" + limit.getLimit() + ", inFlight=" + inFlight.get() + ", queued="
+                + queued.get() + ", maxQueueWait=" + TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos) + "ms]";
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.analytics;
+
+import java.time.Instant;
+
+/**
+ * Sales recorded in a single one-minute window.
+ */
+public final class MinuteSales {
+
+    private final Instant minute;
+    private final SalesTotals totals;
+
+    MinuteSales(Instant minute, SalesTotals totals) {
+        this.minute = minute;
+        this.totals = totals;
+    }
+
+    /**
+     * Start of the minute.
+     */
+    public Instant getMinute() {
+        return minute;
+    }
+
+    public SalesTotals getTotals() {
+        return totals;
+    }
+}
@@ -0,0 +1,208 @@
+package uk.gov.dwp.uc.pairtest.analytics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+
+/**
+ * Live tickets sold and revenue per TicketType, kept in one-minute tumbling
+ * windows for the last 24 hours.
+ *
+ * Register as the PurchaseListener of TicketServiceImpl. The windows are a ring
+ * of buckets allocated up front; each bucket holds a LongAdder per ticket type
+ * for counts and amounts, so concurrent purchases update separate cells rather
+ * than contending on one counter, and recording is O(1) with no allocation.
+ * Queries sum the adders without locking, so they never block purchases; a
+ * query racing with a purchase may or may not include it.
+ *
+ * When the clock moves into a new minute, the first purchase to land on that
+ * minute's bucket clears what it held 24 hours earlier.
+ */
+public class SalesAnalytics implements PurchaseListener {
+
+    /** Length of history kept. */
+    public static final Duration RETENTION = Duration.ofHours(24);
+
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final int BUCKETS = (int) RETENTION.toMinutes();
+    private static final long ROTATING = -1;
+    private static final TicketType[] TICKET_TYPES = TicketType.values();
+
+    private final Clock clock;
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    public SalesAnalytics() {
+        this(Clock.systemUTC());
+    }
+
+    public SalesAnalytics(Clock clock) {
+        this.clock = clock;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    @Override
+    public void onTicketsPurchased(long accountId, TicketType ticketType, int noOfTickets, int amount) {
+        record(ticketType, noOfTickets, amount);
+    }
+
+    /**
+     * Adds tickets sold in the current minute.
+     */
+    public void record(TicketType ticketType, int noOfTickets, int amount) {
+        long minute = clock.millis() / MILLIS_PER_MINUTE;
+        Bucket bucket = buckets[index(minute)];
+        while (true) {
+            long bucketMinute = bucket.minute.get();
+            if (bucketMinute == minute) {
+                bucket.add(ticketType, noOfTickets, amount);
+                return;
+            }
+            if (bucketMinute == ROTATING) {
+                // Another purchase is clearing the bucket for this minute
+                Thread.onSpinWait();
+                continue;
+            }
+            if (bucketMinute > minute) {
+                // Our clock reading is older than the retained history
+                return;
+            }
+            if (bucket.minute.compareAndSet(bucketMinute, ROTATING)) {
+                bucket.reset();
+                bucket.minute.set(minute);
+            }
+        }
+    }
+
+    /**
+     * Totals for the minutes starting in [from, to), limited to the last 24 hours.
+     */
+    public SalesTotals query(Instant from, Instant to) {
+        long[] tickets = new long[TICKET_TYPES.length];
+        long[] amounts = new long[TICKET_TYPES.length];
+        long[] range = minuteRange(from, to);
+        for (long minute = range[0]; minute < range[1]; minute++) {
+            Bucket bucket = buckets[index(minute)];
+            if (bucket.minute.get() == minute) {
+                bucket.addTo(tickets, amounts);
+            }
+        }
+        return new SalesTotals(tickets, amounts);
+    }
+
+    /**
+     * Totals for the last given duration, up to and including the current minute.
+     */
+    public SalesTotals queryLast(Duration duration) {
+        Instant now = clock.instant();
+        return query(now.minus(duration), now.plusMillis(MILLIS_PER_MINUTE));
+    }
+
+    /**
+     * Per-minute totals for the minutes starting in [from, to) that had sales,
+     * oldest first, limited to the last 24 hours.
+     */
+    public List<MinuteSales> perMinute(Instant from, Instant to) {
+        List<MinuteSales> result = new ArrayList<>();
+        long[] range = minuteRange(from, to);
+        for (long minute = range[0]; minute < range[1]; minute++) {
+            Bucket bucket = buckets[index(minute)];
+            if (bucket.minute.get() != minute) {
+                continue;
+            }
+            long[] tickets = new long[TICKET_TYPES.length];
+            long[] amounts = new long[TICKET_TYPES.length];
+            bucket.addTo(tickets, amounts);
+            SalesTotals totals = new SalesTotals(tickets, amounts);
+            if (!totals.isEmpty()) {
+                result.add(new MinuteSales(Instant.ofEpochMilli(minute * MILLIS_PER_MINUTE), totals));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes one CSV line per minute with sales in [from, to):
+     * epoch minute, then tickets and amount for each ticket type.
+     */
+    public void exportCsv(Instant from, Instant to, Writer writer) {
+        try {
+            writer.write("minute");
+            for (TicketType ticketType : TICKET_TYPES) {
+                String name = ticketType.name().toLowerCase();
+                writer.write("," + name + "_tickets," + name + "_amount");
+            }
+            writer.write('\n');
+            for (MinuteSales minuteSales : perMinute(from, to)) {
+                StringBuilder line = new StringBuilder();
+                line.append(minuteSales.getMinute().toEpochMilli() / MILLIS_PER_MINUTE);
+                for (TicketType ticketType : TICKET_TYPES) {
+                    line.append(',').append(minuteSales.getTotals().getTickets(ticketType))
+                            .append(',').append(minuteSales.getTotals().getAmount(ticketType));
+                }
+                writer.write(line.append('\n').toString());
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export sales", e);
+        }
+    }
+
+    private long[] minuteRange(Instant from, Instant to) {
+        long currentMinute = clock.millis() / MILLIS_PER_MINUTE;
+        long oldest = currentMinute - BUCKETS + 1;
+        long start = Math.max(Math.floorDiv(from.toEpochMilli() + MILLIS_PER_MINUTE - 1, MILLIS_PER_MINUTE), oldest);
+        long end = Math.min(Math.floorDiv(to.toEpochMilli() + MILLIS_PER_MINUTE - 1, MILLIS_PER_MINUTE),
+                currentMinute + 1);
+        return new long[] {start, end};
+    }
+
+    private static int index(long minute) {
+        return (int) Math.floorMod(minute, (long) BUCKETS);
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLong minute = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder[] tickets = new LongAdder[TICKET_TYPES.length];
+        private final LongAdder[] amounts = new LongAdder[TICKET_TYPES.length];
+
+        Bucket() {
+            for (int i = 0; i < TICKET_TYPES.length; i++) {
+                tickets[i] = new LongAdder();
+                amounts[i] = new LongAdder();
+            }
+        }
+
+        void add(TicketType ticketType, int noOfTickets, int amount) {
+            tickets[ticketType.ordinal()].add(noOfTickets);
+            amounts[ticketType.ordinal()].add(amount);
+        }
+
+        void addTo(long[] ticketTotals, long[] amountTotals) {
+            for (int i = 0; i < TICKET_TYPES.length; i++) {
+                ticketTotals[i] += tickets[i].sum();
+                amountTotals[i] += amounts[i].sum();
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < TICKET_TYPES.length; i++) {
+                tickets[i].reset();
+                amounts[i].reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package uk.gov.dwp.uc.pairtest.analytics;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+
+/**
+ * Immutable snapshot of tickets sold and revenue per TicketType.
+ */
+public final class SalesTotals {
+
+    private final long[] tickets;
+    private final long[] amounts;
+
+    SalesTotals(long[] tickets, long[] amounts) {
+        this.tickets = tickets;
+        this.amounts = amounts;
+    }
+
+    public long getTickets(TicketType ticketType) {
+        return tickets[ticketType.ordinal()];
+    }
+
+    public long getAmount(TicketType ticketType) {
+        return amounts[ticketType.ordinal()];
+    }
+
+    public long getTotalTickets() {
+        long total = 0;
+        for (long count : tickets) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getTotalAmount() {
+        long total = 0;
+        for (long amount : amounts) {
+            total += amount;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return getTotalTickets() == 0;
+    }
+}
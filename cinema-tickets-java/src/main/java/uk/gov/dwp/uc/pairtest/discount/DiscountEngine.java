@@ -0,0 +1,129 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Applies group rates and promo codes to a purchase total.
+ *
+ * Discounts stack in a fixed order: the best group rate the order qualifies
+ * for, then the promo code's percentage, then its fixed amount. Each
+ * percentage is rounded down to whole pounds (in the customer's favour) and
+ * the total never goes below zero.
+ *
+ * The active rules are an immutable snapshot. {@link #reload} builds a new
+ * snapshot off to the side and swaps it in with a single volatile write, so a
+ * purchase sees either the old rules or the new ones, never a mix, and
+ * lookups never wait for a reload. Applying discounts does not allocate.
+ */
+public class DiscountEngine {
+
+    private volatile Rules rules;
+
+    /**
+     * An engine with no promo codes or group rates.
+     */
+    public DiscountEngine() {
+        this.rules = new Rules(PromoCodeIndex.EMPTY, List.of());
+    }
+
+    /**
+     * @param promos         the active promo codes
+     * @param groupDiscounts the group rates
+     */
+    public DiscountEngine(Collection<Promo> promos, Collection<GroupDiscount> groupDiscounts) {
+        reload(promos, groupDiscounts);
+    }
+
+    /**
+     * Replaces the active promo codes and group rates.
+     *
+     * @param promos         the active promo codes
+     * @param groupDiscounts the group rates
+     * @throws IllegalArgumentException if two promos share a code or two group rates share a minimum
+     */
+    public void reload(Collection<Promo> promos, Collection<GroupDiscount> groupDiscounts) {
+        rules = new Rules(PromoCodeIndex.build(promos), groupDiscounts);
+    }
+
+    /**
+     * @param paidTickets number of adult and child tickets in the order; free infant tickets
+     *                    do not count towards a group rate
+     * @param totalAmount order total before discounts
+     * @param promoCode   promo code entered by the customer, or null
+     * @return the order total after discounts
+     * @throws InvalidPurchaseException if the promo code is not active
+     */
+    public int apply(int paidTickets, int totalAmount, CharSequence promoCode) throws InvalidPurchaseException {
+        // Read once so the whole calculation uses one snapshot
+        Rules current = rules;
+        long amount = percentOff(totalAmount, current.groupPercentOff(paidTickets));
+        if (promoCode != null && promoCode.length() > 0) {
+            int slot = current.promos.indexOf(promoCode);
+            if (slot < 0) {
+                throw new InvalidPurchaseException("Invalid promo code");
+            }
+            amount = percentOff(amount, current.promos.getPercentOff(slot));
+            amount = Math.max(0, amount - current.promos.getAmountOff(slot));
+        }
+        return (int) amount;
+    }
+
+    /**
+     * @return whether the code is currently active
+     */
+    public boolean isActive(CharSequence promoCode) {
+        return rules.promos.indexOf(promoCode) >= 0;
+    }
+
+    /**
+     * @return the number of active promo codes
+     */
+    public int getPromoCount() {
+        return rules.promos.size();
+    }
+
+    private static long percentOff(long amount, int percent) {
+        return amount * (100 - percent) / 100;
+    }
+
+    private static final class Rules {
+
+        final PromoCodeIndex promos;
+        // Ascending minimum ticket counts and their rates
+        final int[] groupMinTickets;
+        final int[] groupPercentOff;
+
+        Rules(PromoCodeIndex promos, Collection<GroupDiscount> groupDiscounts) {
+            this.promos = promos;
+            GroupDiscount[] sorted = groupDiscounts.toArray(new GroupDiscount[0]);
+            Arrays.sort(sorted, Comparator.comparingInt(GroupDiscount::getMinTickets));
+            this.groupMinTickets = new int[sorted.length];
+            this.groupPercentOff = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i].getMinTickets() == sorted[i - 1].getMinTickets()) {
+                    throw new IllegalArgumentException(
+                            "Duplicate group discount for " + sorted[i].getMinTickets() + " tickets");
+                }
+                groupMinTickets[i] = sorted[i].getMinTickets();
+                groupPercentOff[i] = sorted[i].getPercentOff();
+            }
+        }
+
+        /**
+         * @return the rate of the largest group the order qualifies for, or 0
+         */
+        int groupPercentOff(int paidTickets) {
+            for (int i = groupMinTickets.length - 1; i >= 0; i--) {
+                if (paidTickets >= groupMinTickets[i]) {
+                    return groupPercentOff[i];
+                }
+            }
+            return 0;
+        }
+    }
+}
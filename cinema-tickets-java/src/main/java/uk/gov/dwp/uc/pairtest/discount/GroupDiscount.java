@@ -0,0 +1,35 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+/**
+ * Immutable group rate: a percentage off orders of at least a number of paid
+ * (adult and child) tickets. Infants go free, so they do not count.
+ */
+public final class GroupDiscount {
+
+    private final int minTickets;
+    private final int percentOff;
+
+    /**
+     * @param minTickets smallest order the rate applies to, at least 1
+     * @param percentOff percentage taken off the total, 0 to 100
+     * @throws IllegalArgumentException if any argument is out of range
+     */
+    public GroupDiscount(int minTickets, int percentOff) {
+        if (minTickets < 1) {
+            throw new IllegalArgumentException("Minimum tickets must be positive");
+        }
+        if (percentOff < 0 || percentOff > 100) {
+            throw new IllegalArgumentException("Percent off must be between 0 and 100");
+        }
+        this.minTickets = minTickets;
+        this.percentOff = percentOff;
+    }
+
+    public int getMinTickets() {
+        return minTickets;
+    }
+
+    public int getPercentOff() {
+        return percentOff;
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+import java.util.Locale;
+
+/**
+ * Immutable promo code definition: a percentage off, then a fixed amount off.
+ * Codes are case-insensitive and stored in upper case.
+ */
+public final class Promo {
+
+    public static final int MAX_CODE_LENGTH = 32;
+
+    private final String code;
+    private final int percentOff;
+    private final int amountOff;
+
+    /**
+     * @param code       1 to 32 letters, digits or hyphens
+     * @param percentOff percentage taken off the total, 0 to 100
+     * @param amountOff  amount taken off after the percentage, must not be negative
+     * @throws IllegalArgumentException if any argument is out of range
+     */
+    public Promo(String code, int percentOff, int amountOff) {
+        if (code == null || code.isEmpty() || code.length() > MAX_CODE_LENGTH
+                || !code.chars().allMatch(Promo::isCodeChar)) {
+            throw new IllegalArgumentException(
+                    "Promo code must be 1 to " + MAX_CODE_LENGTH + " letters, digits or hyphens");
+        }
+        if (percentOff < 0 || percentOff > 100) {
+            throw new IllegalArgumentException("Percent off must be between 0 and 100");
+        }
+        if (amountOff < 0) {
+            throw new IllegalArgumentException("Amount off must not be negative");
+        }
+        this.code = code.toUpperCase(Locale.ROOT);
+        this.percentOff = percentOff;
+        this.amountOff = amountOff;
+    }
+
+    private static boolean isCodeChar(int c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-';
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public int getPercentOff() {
+        return percentOff;
+    }
+
+    public int getAmountOff() {
+        return amountOff;
+    }
+}
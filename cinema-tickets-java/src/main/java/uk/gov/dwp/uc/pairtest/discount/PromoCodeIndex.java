@@ -0,0 +1,270 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable perfect-hash index of promo codes, held in a handful of primitive
+ * arrays rather than one object per code.
+ *
+ * Built with "hash and displace": codes are hashed into buckets of about four,
+ * and each bucket (largest first) is given a displacement that sends all its
+ * codes to free slots. A lookup is then one hash of the code, one read of the
+ * bucket's displacement and a check of the single slot it lands on, with no
+ * probing. The slot holds the code's full 64-bit hash, so almost every
+ * unknown code is rejected without comparing characters.
+ *
+ * Lookups are case-insensitive and do not allocate.
+ */
+public final class PromoCodeIndex {
+
+    public static final PromoCodeIndex EMPTY = build(List.of());
+
+    private static final int KEYS_PER_BUCKET = 4;
+    private static final double LOAD_FACTOR = 0.85;
+    private static final int MAX_DISPLACEMENT = 1 << 20;
+    private static final int MAX_SEEDS = 16;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final int size;
+    private final int[] displacements;
+    private final long[] slotHashes;
+    private final byte[] slotPercentOff;
+    private final int[] slotAmountOff;
+    // Code of slot i is codes[codeStarts[i] .. codeStarts[i + 1]), empty for a free slot
+    private final int[] codeStarts;
+    private final byte[] codes;
+
+    private PromoCodeIndex(long seed, int size, int[] displacements, long[] slotHashes, byte[] slotPercentOff,
+            int[] slotAmountOff, int[] codeStarts, byte[] codes) {
+        this.seed = seed;
+        this.size = size;
+        this.displacements = displacements;
+        this.slotHashes = slotHashes;
+        this.slotPercentOff = slotPercentOff;
+        this.slotAmountOff = slotAmountOff;
+        this.codeStarts = codeStarts;
+        this.codes = codes;
+    }
+
+    /**
+     * @param promos the active promo codes
+     * @return an index of the codes
+     * @throws IllegalArgumentException if two promos have the same code
+     */
+    public static PromoCodeIndex build(Collection<Promo> promos) {
+        Promo[] entries = promos.toArray(new Promo[0]);
+        Set<String> seen = new HashSet<>();
+        for (Promo promo : entries) {
+            if (!seen.add(promo.getCode())) {
+                throw new IllegalArgumentException("Duplicate promo code " + promo.getCode());
+            }
+        }
+        // A different seed only matters in the unlikely event of a 64-bit hash collision
+        for (long seed = 0; seed < MAX_SEEDS; seed++) {
+            PromoCodeIndex index = tryBuild(entries, seed);
+            if (index != null) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("Could not build promo code index");
+    }
+
+    /**
+     * @param code a promo code, in any case
+     * @return the slot of the code, or -1 if it is not in the index
+     */
+    public int indexOf(CharSequence code) {
+        if (code == null || size == 0) {
+            return -1;
+        }
+        long hash = hash(code, seed);
+        int slot = slotOf(hash, displacements[bucketOf(hash, displacements.length)], slotHashes.length);
+        if (slotHashes[slot] != hash || !codeEquals(slot, code)) {
+            return -1;
+        }
+        return slot;
+    }
+
+    /**
+     * @param slot a slot returned by {@link #indexOf(CharSequence)}
+     */
+    public int getPercentOff(int slot) {
+        return slotPercentOff[slot];
+    }
+
+    /**
+     * @param slot a slot returned by {@link #indexOf(CharSequence)}
+     */
+    public int getAmountOff(int slot) {
+        return slotAmountOff[slot];
+    }
+
+    /**
+     * @return the number of codes in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean codeEquals(int slot, CharSequence code) {
+        int start = codeStarts[slot];
+        int length = codeStarts[slot + 1] - start;
+        if (length != code.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (codes[start + i] != upperCase(code.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PromoCodeIndex tryBuild(Promo[] entries, long seed) {
+        int n = entries.length;
+        int slots = Math.max(1, (int) Math.ceil(n / LOAD_FACTOR));
+        int buckets = Math.max(1, (n + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET);
+
+        // Group the entries by bucket
+        long[] hashes = new long[n];
+        int[] bucketStarts = new int[buckets + 1];
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hash(entries[i].getCode(), seed);
+            bucketStarts[bucketOf(hashes[i], buckets) + 1]++;
+        }
+        int maxBucketSize = 0;
+        for (int b = 0; b < buckets; b++) {
+            maxBucketSize = Math.max(maxBucketSize, bucketStarts[b + 1]);
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        int[] bucketEntries = new int[n];
+        int[] filled = Arrays.copyOf(bucketStarts, buckets);
+        for (int i = 0; i < n; i++) {
+            bucketEntries[filled[bucketOf(hashes[i], buckets)]++] = i;
+        }
+
+        // Place the largest buckets first, while the table is emptiest
+        int[][] bucketsBySize = new int[maxBucketSize + 1][];
+        int[] sizeCounts = new int[maxBucketSize + 1];
+        for (int b = 0; b < buckets; b++) {
+            sizeCounts[bucketStarts[b + 1] - bucketStarts[b]]++;
+        }
+        for (int s = 0; s <= maxBucketSize; s++) {
+            bucketsBySize[s] = new int[sizeCounts[s]];
+            sizeCounts[s] = 0;
+        }
+        for (int b = 0; b < buckets; b++) {
+            int bucketSize = bucketStarts[b + 1] - bucketStarts[b];
+            bucketsBySize[bucketSize][sizeCounts[bucketSize]++] = b;
+        }
+
+        boolean[] taken = new boolean[slots];
+        int[] slotEntries = new int[slots];
+        Arrays.fill(slotEntries, -1);
+        int[] displacements = new int[buckets];
+        int[] trial = new int[Math.max(1, maxBucketSize)];
+        for (int s = maxBucketSize; s > 0; s--) {
+            for (int bucket : bucketsBySize[s]) {
+                int start = bucketStarts[bucket];
+                int displacement = place(hashes, bucketEntries, start, s, slots, taken, trial);
+                if (displacement < 0) {
+                    return null;
+                }
+                displacements[bucket] = displacement;
+                for (int k = 0; k < s; k++) {
+                    slotEntries[trial[k]] = bucketEntries[start + k];
+                }
+            }
+        }
+
+        long[] slotHashes = new long[slots];
+        byte[] slotPercentOff = new byte[slots];
+        int[] slotAmountOff = new int[slots];
+        int[] codeStarts = new int[slots + 1];
+        int codeBytes = 0;
+        for (Promo promo : entries) {
+            codeBytes += promo.getCode().length();
+        }
+        byte[] codes = new byte[codeBytes];
+        int position = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            codeStarts[slot] = position;
+            int entry = slotEntries[slot];
+            if (entry >= 0) {
+                Promo promo = entries[entry];
+                slotHashes[slot] = hashes[entry];
+                slotPercentOff[slot] = (byte) promo.getPercentOff();
+                slotAmountOff[slot] = promo.getAmountOff();
+                byte[] code = promo.getCode().getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(code, 0, codes, position, code.length);
+                position += code.length;
+            }
+        }
+        codeStarts[slots] = position;
+        return new PromoCodeIndex(seed, n, displacements, slotHashes, slotPercentOff, slotAmountOff, codeStarts,
+                codes);
+    }
+
+    /**
+     * Finds a displacement that sends every entry in the bucket to a free
+     * slot, marks those slots taken and leaves them in {@code trial}.
+     *
+     * @return the displacement, or -1 if none was found
+     */
+    private static int place(long[] hashes, int[] bucketEntries, int start, int bucketSize, int slots,
+            boolean[] taken, int[] trial) {
+        for (int displacement = 0; displacement < MAX_DISPLACEMENT; displacement++) {
+            int placed = 0;
+            while (placed < bucketSize) {
+                int slot = slotOf(hashes[bucketEntries[start + placed]], displacement, slots);
+                if (taken[slot]) {
+                    break;
+                }
+                // Marked straight away so two entries of the bucket cannot share a slot
+                taken[slot] = true;
+                trial[placed++] = slot;
+            }
+            if (placed == bucketSize) {
+                return displacement;
+            }
+            for (int k = 0; k < placed; k++) {
+                taken[trial[k]] = false;
+            }
+        }
+        return -1;
+    }
+
+    private static int bucketOf(long hash, int buckets) {
+        return (int) (((hash & 0xFFFFFFFFL) * buckets) >>> 32);
+    }
+
+    private static int slotOf(long hash, int displacement, int slots) {
+        long mixed = mix(hash + (displacement + 1) * GOLDEN_GAMMA);
+        return (int) (((mixed >>> 32) * slots) >>> 32);
+    }
+
+    // FNV-1a over the upper-cased characters, then a 64-bit finaliser
+    private static long hash(CharSequence code, long seed) {
+        long hash = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < code.length(); i++) {
+            hash = (hash ^ upperCase(code.charAt(i))) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static int upperCase(char c) {
+        return c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c;
+    }
+}
@@ -0,0 +1,113 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+/**
+ * Immutable result of a successful purchase, with a unique ticket ID for
+ * every ticket bought. Adult tickets come first, then child, then infant.
+ */
+public final class PurchaseResult {
+
+    private final long accountId;
+    private final int adultTickets;
+    private final int childTickets;
+    private final int infantTickets;
+    private final int totalAmount;
+    private final long[] ticketIds;
+
+    /**
+     * @param accountId     the purchasing account
+     * @param adultTickets  number of adult tickets
+     * @param childTickets  number of child tickets
+     * @param infantTickets number of infant tickets
+     * @param totalAmount   amount paid
+     * @param ticketIds     one ID per ticket, adults first, then children, then infants
+     * @throws IllegalArgumentException if there is not exactly one ID per ticket
+     */
+    public PurchaseResult(long accountId, int adultTickets, int childTickets, int infantTickets, int totalAmount,
+            long[] ticketIds) {
+        this(ticketIds == null ? null : ticketIds.clone(), accountId, adultTickets, childTickets, infantTickets,
+                totalAmount);
+    }
+
+    // Takes ownership of ticketIds
+    private PurchaseResult(long[] ticketIds, long accountId, int adultTickets, int childTickets, int infantTickets,
+            int totalAmount) {
+        if (ticketIds == null || ticketIds.length != adultTickets + childTickets + infantTickets) {
+            throw new IllegalArgumentException("Exactly one ticket ID is required per ticket");
+        }
+        this.accountId = accountId;
+        this.adultTickets = adultTickets;
+        this.childTickets = childTickets;
+        this.infantTickets = infantTickets;
+        this.totalAmount = totalAmount;
+        this.ticketIds = ticketIds;
+    }
+
+    /**
+     * Creates a result that takes ownership of ticketIds instead of copying it,
+     * for callers that have just allocated the array for this result. The
+     * caller must not modify the array afterwards.
+     *
+     * @throws IllegalArgumentException if there is not exactly one ID per ticket
+     * @see #PurchaseResult(long, int, int, int, int, long[])
+     */
+    public static PurchaseResult wrap(long accountId, int adultTickets, int childTickets, int infantTickets,
+            int totalAmount, long[] ticketIds) {
+        return new PurchaseResult(ticketIds, accountId, adultTickets, childTickets, infantTickets, totalAmount);
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalAmount() {
+        return totalAmount;
+    }
+
+    public int getTotalSeats() {
+        // Infants do not occupy a seat
+        return adultTickets + childTickets;
+    }
+
+    public int getTicketCount() {
+        return ticketIds.length;
+    }
+
+    /**
+     * @param ticketType the type of ticket
+     * @return the number of tickets of that type
+     */
+    public int getTicketCount(TicketType ticketType) {
+        switch (ticketType) {
+            case ADULT:
+                return adultTickets;
+            case CHILD:
+                return childTickets;
+            default:
+                return infantTickets;
+        }
+    }
+
+    /**
+     * @param index 0 to getTicketCount() - 1
+     */
+    public long getTicketId(int index) {
+        return ticketIds[index];
+    }
+
+    /**
+     * @param index 0 to getTicketCount() - 1
+     */
+    public TicketType getTicketType(int index) {
+        if (index < 0 || index >= ticketIds.length) {
+            throw new IndexOutOfBoundsException("Ticket index " + index + " out of range");
+        }
+        if (index < adultTickets) {
+            return TicketType.ADULT;
+        }
+        return index < adultTickets + childTickets ? TicketType.CHILD : TicketType.INFANT;
+    }
+
+    public long[] getTicketIds() {
+        return ticketIds.clone();
+    }
+}
@@ -0,0 +1,177 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * A whole order packed into one long, for holding large numbers of orders
+ * without an object or array per order.
+ *
+ * Each ticket type has a 16-bit count: ADULT in bits 0-15, CHILD in bits
+ * 16-31 and INFANT in bits 32-47. The top 16 bits are always zero. Counts
+ * above {@link #MAX_COUNT} are held as MAX_COUNT, which is far above the
+ * purchase limit, so an oversized order still reads as oversized.
+ *
+ * The purchase rules and standard prices are applied here, to the packed
+ * form, so TicketServiceImpl validates and prices every purchase with
+ * {@link #validate(long)} and {@link #getTotalAmount(long)}, whether it was
+ * made with TicketTypeRequests or with purchaseTickets(accountId, order).
+ */
+public final class TicketOrder {
+
+    public static final int MAX_TICKETS_PER_PURCHASE = 25;
+
+    /**
+     * The largest count held for one ticket type.
+     */
+    public static final int MAX_COUNT = 0xFFFF;
+
+    /**
+     * An order with no tickets.
+     */
+    public static final long EMPTY = 0L;
+
+    private static final int BITS_PER_TYPE = 16;
+    private static final long RESERVED_BITS = -1L << (3 * BITS_PER_TYPE);
+
+    private TicketOrder() {
+    }
+
+    /**
+     * @param adultTickets  number of adult tickets (must not be negative)
+     * @param childTickets  number of child tickets (must not be negative)
+     * @param infantTickets number of infant tickets (must not be negative)
+     * @return the packed order
+     * @throws IllegalArgumentException if a count is negative
+     */
+    public static long of(int adultTickets, int childTickets, int infantTickets) {
+        long order = add(EMPTY, TicketType.ADULT, adultTickets);
+        order = add(order, TicketType.CHILD, childTickets);
+        return add(order, TicketType.INFANT, infantTickets);
+    }
+
+    /**
+     * @param ticketTypeRequests the tickets requested; a type may appear more than once
+     * @return the packed order
+     */
+    public static long of(TicketTypeRequest... ticketTypeRequests) {
+        long order = EMPTY;
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            order = add(order, request.getTicketType(), request.getNoOfTickets());
+        }
+        return order;
+    }
+
+    /**
+     * @param order       a packed order
+     * @param ticketType  the type of ticket to add
+     * @param noOfTickets the number of tickets to add (must not be negative)
+     * @return the order with the tickets added
+     * @throws IllegalArgumentException if noOfTickets is negative
+     */
+    public static long add(long order, TicketType ticketType, int noOfTickets) {
+        if (noOfTickets < 0) {
+            throw new IllegalArgumentException("Number of tickets must not be negative");
+        }
+        int tickets = (int) Math.min(MAX_COUNT, (long) getTickets(order, ticketType) + noOfTickets);
+        int shift = shift(ticketType);
+        return order & ~((long) MAX_COUNT << shift) | (long) tickets << shift;
+    }
+
+    /**
+     * @param order      a packed order
+     * @param ticketType the type of ticket
+     * @return the number of tickets of that type
+     */
+    public static int getTickets(long order, TicketType ticketType) {
+        return (int) (order >>> shift(ticketType)) & MAX_COUNT;
+    }
+
+    public static int getAdultTickets(long order) {
+        return (int) order & MAX_COUNT;
+    }
+
+    public static int getChildTickets(long order) {
+        return (int) (order >>> BITS_PER_TYPE) & MAX_COUNT;
+    }
+
+    public static int getInfantTickets(long order) {
+        return (int) (order >>> (2 * BITS_PER_TYPE)) & MAX_COUNT;
+    }
+
+    public static int getTotalTickets(long order) {
+        return getAdultTickets(order) + getChildTickets(order) + getInfantTickets(order);
+    }
+
+    /**
+     * @param order a packed order
+     * @return the number of seats needed; infants sit on an adult's lap
+     */
+    public static int getTotalSeats(long order) {
+        return getAdultTickets(order) + getChildTickets(order);
+    }
+
+    /**
+     * @param order a packed order
+     * @return the total at standard prices; infants go free
+     */
+    public static int getTotalAmount(long order) {
+        return getAdultTickets(order) * TicketType.ADULT.getPrice()
+                + getChildTickets(order) * TicketType.CHILD.getPrice();
+    }
+
+    /**
+     * Checks an order against the purchase rules.
+     *
+     * @param order a packed order
+     * @throws InvalidPurchaseException if the order cannot be purchased
+     */
+    public static void validate(long order) throws InvalidPurchaseException {
+        if (!isValid(order)) {
+            throw new InvalidPurchaseException("Invalid ticket order");
+        }
+        int totalTickets = getTotalTickets(order);
+        if (totalTickets == 0) {
+            throw new InvalidPurchaseException("At least one ticket must be purchased");
+        }
+        if (totalTickets > MAX_TICKETS_PER_PURCHASE) {
+            throw new InvalidPurchaseException("Maximum of " + MAX_TICKETS_PER_PURCHASE + " tickets per purchase");
+        }
+        int adultTickets = getAdultTickets(order);
+        // Ensure at least one adult ticket is purchased with child/infant tickets
+        if (adultTickets == 0) {
+            throw new InvalidPurchaseException("Child or Infant tickets cannot be purchased without an Adult ticket");
+        }
+        // Every infant must be accompanied by an adult - as they are seated on adults lap
+        if (getInfantTickets(order) > adultTickets) {
+            throw new InvalidPurchaseException("Each infant must be accompanied by an adult");
+        }
+    }
+
+    /**
+     * @param order a long that may be a packed order
+     * @return whether the reserved bits are clear
+     */
+    public static boolean isValid(long order) {
+        return (order & RESERVED_BITS) == 0;
+    }
+
+    /**
+     * @param order a packed order
+     * @return the counts, e.g. "ADULT=2 CHILD=1 INFANT=0"
+     */
+    public static String toString(long order) {
+        return "ADULT=" + getAdultTickets(order) + " CHILD=" + getChildTickets(order) + " INFANT="
+                + getInfantTickets(order);
+    }
+
+    private static int shift(TicketType ticketType) {
+        switch (ticketType) {
+            case ADULT:
+                return 0;
+            case CHILD:
+                return BITS_PER_TYPE;
+            default:
+                return 2 * BITS_PER_TYPE;
+        }
+    }
+}
@@ -15,6 +15,20 @@ package uk.gov.dwp.uc.pairtest.domain;
 
 public final class TicketTypeRequest {
 
+    // Every count a valid purchase can hold (0 to 25) is preallocated for each type
+    private static final int MAX_SHARED_TICKETS = TicketOrder.MAX_TICKETS_PER_PURCHASE;
+    private static final TicketTypeRequest[][] SHARED = new TicketTypeRequest[TicketType.values().length][];
+
+    static {
+        for (TicketType ticketType : TicketType.values()) {
+            TicketTypeRequest[] requests = new TicketTypeRequest[MAX_SHARED_TICKETS + 1];
+            for (int noOfTickets = 0; noOfTickets <= MAX_SHARED_TICKETS; noOfTickets++) {
+                requests[noOfTickets] = new TicketTypeRequest(ticketType, noOfTickets);
+            }
+            SHARED[ticketType.ordinal()] = requests;
+        }
+    }
+
     private final int noOfTickets;
     private final TicketType ticketType;
 
@@ -36,6 +50,23 @@ public final class TicketTypeRequest {
         this.noOfTickets = noOfTickets;
     }
 
+    /**
+     * Returns a TicketTypeRequest, shared rather than newly allocated for
+     * every count a valid purchase can hold (0 to 25). Larger counts get a
+     * new instance.
+     *
+     * @param ticketType  the type of ticket (must not be null)
+     * @param noOfTickets the number of tickets requested (must not be negative)
+     * @return the request
+     * @throws IllegalArgumentException if ticketType is null or noOfTickets is negative
+     */
+    public static TicketTypeRequest of(TicketType ticketType, int noOfTickets) {
+        if (ticketType != null && noOfTickets >= 0 && noOfTickets <= MAX_SHARED_TICKETS) {
+            return SHARED[ticketType.ordinal()][noOfTickets];
+        }
+        return new TicketTypeRequest(ticketType, noOfTickets);
+    }
+
     public int getNoOfTickets() {
         return noOfTickets;
     }
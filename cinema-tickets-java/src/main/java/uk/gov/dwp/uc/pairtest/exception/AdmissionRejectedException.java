@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Unchecked exception thrown when a purchase is turned away because the
+ * service is overloaded. Unlike InvalidPurchaseException the request itself
+ * is fine and may be retried later.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    /**
+     * Why the request was not admitted.
+     */
+    public enum Reason {
+        /** The concurrency limit was reached and queueing is disabled. */
+        LIMIT_EXCEEDED,
+        /** The concurrency limit was reached and the wait queue is full. */
+        QUEUE_FULL,
+        /** The request waited in the queue for the maximum time without being admitted. */
+        QUEUE_TIMEOUT
+    }
+
+    private final Reason reason;
+
+    /**
+     * Constructs a new AdmissionRejectedException with a custom error message.
+     *
+     * @param message the detail message
+     * @param reason  why the request was rejected
+     */
+    public AdmissionRejectedException(String message, Reason reason) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Constructs a new AdmissionRejectedException with a custom error message and a cause.
+     *
+     * @param message the detail message
+     * @param reason  why the request was rejected
+     * @param cause   the cause of the exception
+     */
+    public AdmissionRejectedException(String message, Reason reason, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
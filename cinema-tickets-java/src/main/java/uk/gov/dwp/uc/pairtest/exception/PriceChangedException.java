@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Unchecked exception thrown when a price quote can no longer be honoured
+ * because the screening has moved to a different price step. The customer
+ * must be shown a new quote; they are never charged a price they were not
+ * quoted.
+ */
+public class PriceChangedException extends InvalidPurchaseException {
+
+    /**
+     * Constructs a new PriceChangedException with a custom error message.
+     *
+     * @param message the detail message
+     */
+    public PriceChangedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new PriceChangedException with a custom error message and a cause.
+     *
+     * @param message the detail message
+     * @param cause   the cause of the exception
+     */
+    public PriceChangedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+/**
+ * Unchecked exception thrown when a buyer cannot join a screening's waitlist
+ * because it has reached its capacity.
+ */
+public class WaitlistFullException extends RuntimeException {
+
+    /**
+     * Constructs a new WaitlistFullException with a custom error message.
+     *
+     * @param message the detail message
+     */
+    public WaitlistFullException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new WaitlistFullException with a custom error message and a cause.
+     *
+     * @param message the detail message
+     * @param cause   the cause of the exception
+     */
+    public WaitlistFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,31 @@
+package uk.gov.dwp.uc.pairtest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A call to TicketPaymentService.makePayment.
+ */
+@Name(PaymentEvent.NAME)
+@Label("Payment")
+@Description("A call to TicketPaymentService.makePayment")
+@Category({ "Cinema Tickets", "Purchase" })
+@Enabled(false)
+@StackTrace(false)
+public final class PaymentEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "uk.gov.dwp.uc.pairtest.Payment";
+
+    @Label("Account ID")
+    public long accountId;
+
+    @Label("Amount")
+    public int amount;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
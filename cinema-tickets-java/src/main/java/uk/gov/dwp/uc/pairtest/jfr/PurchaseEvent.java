@@ -0,0 +1,53 @@
+package uk.gov.dwp.uc.pairtest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans a whole call to TicketServiceImpl.purchaseTickets. The phase events
+ * (validation, totals, payment and reservation) are recorded on the same
+ * thread inside it.
+ *
+ * Disabled unless turned on by the recording settings, e.g. the
+ * {@code jfr/purchase.jfc} profile.
+ */
+@Name(PurchaseEvent.NAME)
+@Label("Ticket Purchase")
+@Description("A call to TicketService.purchaseTickets")
+@Category({ "Cinema Tickets", "Purchase" })
+@Enabled(false)
+@StackTrace(false)
+public final class PurchaseEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "uk.gov.dwp.uc.pairtest.Purchase";
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    @Label("Account ID")
+    public long accountId;
+
+    @Label("Adult Tickets")
+    public int adultTickets;
+
+    @Label("Child Tickets")
+    public int childTickets;
+
+    @Label("Infant Tickets")
+    public int infantTickets;
+
+    @Label("Total Amount")
+    public int totalAmount;
+
+    @Label("Outcome")
+    @Description("SUCCESS, REJECTED (invalid purchase) or FAILED (payment or reservation error)")
+    public String outcome;
+
+    @Label("Rejection Reason")
+    public String rejectionReason;
+}
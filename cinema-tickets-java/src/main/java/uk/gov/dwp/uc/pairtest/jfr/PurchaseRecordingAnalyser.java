@@ -0,0 +1,337 @@
+package uk.gov.dwp.uc.pairtest.jfr;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Reads a JFR recording made with the purchase events enabled (e.g. with the
+ * {@code jfr/purchase.jfc} profile) and reports latency percentiles for each
+ * phase, outcome and rejection reason counts, and a per-phase breakdown of
+ * the slowest purchases.
+ *
+ * <pre>
+ * java -cp target/classes uk.gov.dwp.uc.pairtest.jfr.PurchaseRecordingAnalyser purchases.jfr [slowest]
+ * </pre>
+ *
+ * The recording is read twice so that memory use does not depend on how many
+ * other events it holds: once for the latencies and the slowest purchases,
+ * then again for the phases of just those purchases.
+ */
+public class PurchaseRecordingAnalyser {
+
+    public static final String PURCHASE = "purchase";
+    public static final String VALIDATION = "validation";
+    public static final String TOTALS = "totals";
+    public static final String PAYMENT = "payment";
+    public static final String RESERVATION = "reservation";
+    public static final String OTHER = "other";
+
+    // Event name to phase, in report order
+    private static final Map<String, String> PHASES = new LinkedHashMap<>();
+
+    static {
+        PHASES.put(PurchaseEvent.NAME, PURCHASE);
+        PHASES.put(PurchaseValidationEvent.NAME, VALIDATION);
+        PHASES.put(PurchaseTotalsEvent.NAME, TOTALS);
+        PHASES.put(PaymentEvent.NAME, PAYMENT);
+        PHASES.put(ReservationEvent.NAME, RESERVATION);
+    }
+
+    private final int slowestToShow;
+
+    /**
+     * @param slowestToShow how many of the slowest purchases to break down
+     */
+    public PurchaseRecordingAnalyser(int slowestToShow) {
+        if (slowestToShow < 0) {
+            throw new IllegalArgumentException("Slowest purchases to show must not be negative");
+        }
+        this.slowestToShow = slowestToShow;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: PurchaseRecordingAnalyser <recording.jfr> [slowest purchases to show]");
+            System.exit(1);
+        }
+        int slowest = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        new PurchaseRecordingAnalyser(slowest).analyse(Paths.get(args[0])).print(System.out);
+    }
+
+    /**
+     * @param recording path of the .jfr file
+     * @return the analysis of the purchase events in the recording
+     * @throws IOException if the recording cannot be read
+     */
+    public Report analyse(Path recording) throws IOException {
+        Map<String, LongList> durations = new LinkedHashMap<>();
+        PHASES.values().forEach(phase -> durations.put(phase, new LongList()));
+        Map<String, Long> outcomes = new TreeMap<>();
+        Map<String, Long> rejectionReasons = new TreeMap<>();
+        PriorityQueue<SlowPurchase> slowest = new PriorityQueue<>(Comparator.comparing(SlowPurchase::getDuration));
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String phase = PHASES.get(event.getEventType().getName());
+                if (phase == null) {
+                    continue;
+                }
+                durations.get(phase).add(event.getDuration().toNanos());
+                if (PURCHASE.equals(phase)) {
+                    String outcome = event.getString("outcome");
+                    outcomes.merge(outcome, 1L, Long::sum);
+                    String reason = event.getString("rejectionReason");
+                    if (reason != null) {
+                        rejectionReasons.merge(reason, 1L, Long::sum);
+                    }
+                    if (slowestToShow > 0) {
+                        slowest.add(new SlowPurchase(event));
+                        if (slowest.size() > slowestToShow) {
+                            slowest.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<SlowPurchase> slowPurchases = new ArrayList<>(slowest);
+        slowPurchases.sort(Comparator.comparing(SlowPurchase::getDuration).reversed());
+        if (!slowPurchases.isEmpty()) {
+            addPhases(recording, slowPurchases);
+        }
+
+        Map<String, PhaseLatency> phases = new LinkedHashMap<>();
+        durations.forEach((phase, values) -> phases.put(phase, new PhaseLatency(values.toSortedArray())));
+        return new Report(phases, outcomes, rejectionReasons, slowPurchases);
+    }
+
+    private static void addPhases(Path recording, List<SlowPurchase> slowPurchases) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String phase = PHASES.get(event.getEventType().getName());
+                if (phase == null || PURCHASE.equals(phase)) {
+                    continue;
+                }
+                for (SlowPurchase purchase : slowPurchases) {
+                    if (purchase.contains(event)) {
+                        purchase.phases.merge(phase, event.getDuration(), Duration::plus);
+                        break;
+                    }
+                }
+            }
+        }
+        for (SlowPurchase purchase : slowPurchases) {
+            // Totals are nested inside validation so are not counted again
+            Duration other = purchase.duration
+                    .minus(purchase.getPhase(VALIDATION))
+                    .minus(purchase.getPhase(PAYMENT))
+                    .minus(purchase.getPhase(RESERVATION));
+            purchase.phases.put(OTHER, other.isNegative() ? Duration.ZERO : other);
+        }
+    }
+
+    private static long threadId(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        return thread == null ? -1 : thread.getJavaThreadId();
+    }
+
+    /**
+     * Latency distribution of one phase.
+     */
+    public static final class PhaseLatency {
+
+        private final long[] sortedNanos;
+
+        PhaseLatency(long[] sortedNanos) {
+            this.sortedNanos = sortedNanos;
+        }
+
+        public int getCount() {
+            return sortedNanos.length;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the latency at that percentile, or zero if there were no events
+         */
+        public Duration getPercentile(double percentile) {
+            if (sortedNanos.length == 0) {
+                return Duration.ZERO;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedNanos.length) - 1;
+            return Duration.ofNanos(sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))]);
+        }
+
+        public Duration getMax() {
+            return getPercentile(100);
+        }
+    }
+
+    /**
+     * One of the slowest purchases, with the time spent in each of its phases.
+     */
+    public static final class SlowPurchase {
+
+        private final long threadId;
+        private final Instant start;
+        private final Instant end;
+        private final long accountId;
+        private final String outcome;
+        private final Duration duration;
+        private final Map<String, Duration> phases = new LinkedHashMap<>();
+
+        SlowPurchase(RecordedEvent event) {
+            this.threadId = threadId(event);
+            this.start = event.getStartTime();
+            this.end = event.getEndTime();
+            this.accountId = event.getLong("accountId");
+            this.outcome = event.getString("outcome");
+            this.duration = event.getDuration();
+        }
+
+        boolean contains(RecordedEvent event) {
+            return threadId(event) == threadId
+                    && !event.getStartTime().isBefore(start)
+                    && !event.getEndTime().isAfter(end);
+        }
+
+        public long getAccountId() {
+            return accountId;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * @param phase e.g. {@link #PAYMENT}, or {@link #OTHER} for time outside the phases
+         * @return time spent in that phase, zero if it was not reached
+         */
+        public Duration getPhase(String phase) {
+            return phases.getOrDefault(phase, Duration.ZERO);
+        }
+    }
+
+    /**
+     * Result of analysing a recording.
+     */
+    public static final class Report {
+
+        private final Map<String, PhaseLatency> phases;
+        private final Map<String, Long> outcomes;
+        private final Map<String, Long> rejectionReasons;
+        private final List<SlowPurchase> slowest;
+
+        Report(Map<String, PhaseLatency> phases, Map<String, Long> outcomes, Map<String, Long> rejectionReasons,
+                List<SlowPurchase> slowest) {
+            this.phases = Collections.unmodifiableMap(phases);
+            this.outcomes = Collections.unmodifiableMap(outcomes);
+            this.rejectionReasons = Collections.unmodifiableMap(rejectionReasons);
+            this.slowest = Collections.unmodifiableList(slowest);
+        }
+
+        /**
+         * @param phase e.g. {@link #PURCHASE} or {@link #PAYMENT}
+         */
+        public PhaseLatency getPhase(String phase) {
+            return phases.get(phase);
+        }
+
+        /**
+         * Purchase counts keyed by outcome, e.g. {@link PurchaseEvent#SUCCESS}.
+         */
+        public Map<String, Long> getOutcomes() {
+            return outcomes;
+        }
+
+        public Map<String, Long> getRejectionReasons() {
+            return rejectionReasons;
+        }
+
+        /**
+         * The slowest purchases, slowest first.
+         */
+        public List<SlowPurchase> getSlowest() {
+            return slowest;
+        }
+
+        public void print(PrintStream out) {
+            out.println("Purchases by outcome: " + outcomes);
+            out.println();
+            out.printf("%-14s %10s %10s %10s %10s %10s %10s%n",
+                    "phase (us)", "count", "p50", "p90", "p99", "p99.9", "max");
+            phases.forEach((phase, latency) -> out.printf("%-14s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    phase, latency.getCount(), micros(latency.getPercentile(50)),
+                    micros(latency.getPercentile(90)), micros(latency.getPercentile(99)),
+                    micros(latency.getPercentile(99.9)), micros(latency.getMax())));
+            out.println("(validation includes totals)");
+
+            if (!rejectionReasons.isEmpty()) {
+                out.println();
+                out.println("Rejection reasons:");
+                rejectionReasons.entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                        .forEach(entry -> out.printf("%10d  %s%n", entry.getValue(), entry.getKey()));
+            }
+
+            if (!slowest.isEmpty()) {
+                out.println();
+                out.println("Slowest purchases (us):");
+                for (SlowPurchase purchase : slowest) {
+                    out.printf("%10.1f  account %d %s: validation %.1f (totals %.1f), payment %.1f,"
+                            + " reservation %.1f, other %.1f%n",
+                            micros(purchase.getDuration()), purchase.getAccountId(), purchase.getOutcome(),
+                            micros(purchase.getPhase(VALIDATION)), micros(purchase.getPhase(TOTALS)),
+                            micros(purchase.getPhase(PAYMENT)), micros(purchase.getPhase(RESERVATION)),
+                            micros(purchase.getPhase(OTHER)));
+                }
+            }
+        }
+
+        private static double micros(Duration duration) {
+            return duration.toNanos() / 1_000.0;
+        }
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
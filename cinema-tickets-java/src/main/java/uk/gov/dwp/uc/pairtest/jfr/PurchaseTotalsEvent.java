@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Calculation of the ticket, seat and amount totals for a purchase.
+ */
+@Name(PurchaseTotalsEvent.NAME)
+@Label("Purchase Totals")
+@Description("Calculation of the totals for a purchase")
+@Category({ "Cinema Tickets", "Purchase" })
+@Enabled(false)
+@StackTrace(false)
+public final class PurchaseTotalsEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "uk.gov.dwp.uc.pairtest.PurchaseTotals";
+
+    @Label("Account ID")
+    public long accountId;
+
+    @Label("Total Tickets")
+    public int totalTickets;
+
+    @Label("Total Amount")
+    public int totalAmount;
+
+    @Label("Total Seats")
+    public int totalSeats;
+}
@@ -0,0 +1,36 @@
+package uk.gov.dwp.uc.pairtest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Validation of the account and ticket requests. Includes calculating the
+ * totals the purchase rules are checked against, so a PurchaseTotalsEvent is
+ * nested inside it.
+ */
+@Name(PurchaseValidationEvent.NAME)
+@Label("Purchase Validation")
+@Description("Validation of a purchase, including calculating its totals")
+@Category({ "Cinema Tickets", "Purchase" })
+@Enabled(false)
+@StackTrace(false)
+public final class PurchaseValidationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "uk.gov.dwp.uc.pairtest.PurchaseValidation";
+
+    @Label("Account ID")
+    public long accountId;
+
+    @Label("Total Tickets")
+    public int totalTickets;
+
+    @Label("Passed")
+    public boolean passed;
+
+    @Label("Rejection Reason")
+    public String rejectionReason;
+}
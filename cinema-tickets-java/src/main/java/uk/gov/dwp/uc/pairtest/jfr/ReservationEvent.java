@@ -0,0 +1,31 @@
+package uk.gov.dwp.uc.pairtest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A call to SeatReservationService.reserveSeat.
+ */
+@Name(ReservationEvent.NAME)
+@Label("Seat Reservation")
+@Description("A call to SeatReservationService.reserveSeat")
+@Category({ "Cinema Tickets", "Purchase" })
+@Enabled(false)
+@StackTrace(false)
+public final class ReservationEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "uk.gov.dwp.uc.pairtest.Reservation";
+
+    @Label("Account ID")
+    public long accountId;
+
+    @Label("Seats")
+    public int seats;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
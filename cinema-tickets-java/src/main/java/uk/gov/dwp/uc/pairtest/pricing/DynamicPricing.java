@@ -0,0 +1,156 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PriceChangedException;
+
+/**
+ * Occupancy-driven ADULT and CHILD prices for a set of screenings, numbered
+ * from 0.
+ *
+ * Each screening has one counter of seats taken. The counters are spaced a
+ * cache-line pair apart so that purchases for different screenings never
+ * contend on the same line. Quoting reads a counter with plain (opaque)
+ * semantics and no fence, so the price shown is based on an approximate,
+ * possibly slightly stale occupancy.
+ *
+ * An order is priced at the step its last seat falls in, so an order that
+ * crosses a threshold pays the higher price for all of its seats.
+ *
+ * Charging is where the quote is made exact: a single compare-and-set claims
+ * the order's seats only if, at that instant, its last seat still falls on
+ * the quoted price step. The customer is therefore charged exactly the quoted
+ * price, and it is the correct price for the seats they actually got. If the
+ * order would now land on another step, nothing is claimed and a
+ * PriceChangedException asks for a new quote.
+ */
+public class DynamicPricing {
+
+    // 16 longs = 128 bytes between counters, covering adjacent-line prefetch
+    private static final int STRIDE = 16;
+
+    private final PriceCurve curve;
+    private final int screenings;
+    private final AtomicLongArray seatsTaken;
+
+    /**
+     * @param screenings number of screenings
+     * @param curve      price curve, including each screening's capacity
+     */
+    public DynamicPricing(int screenings, PriceCurve curve) {
+        if (screenings < 1) {
+            throw new IllegalArgumentException("Screenings must be positive");
+        }
+        this.curve = curve;
+        this.screenings = screenings;
+        this.seatsTaken = new AtomicLongArray(screenings * STRIDE);
+    }
+
+    /**
+     * Quotes the current prices for an order.
+     *
+     * @param screening    the screening, 0 to screenings - 1
+     * @param adultTickets number of adult tickets
+     * @param childTickets number of child tickets
+     * @return the quote to show the customer and later charge
+     */
+    public PriceQuote quote(int screening, int adultTickets, int childTickets) {
+        checkScreening(screening);
+        if (adultTickets < 0 || childTickets < 0) {
+            throw new IllegalArgumentException("Number of tickets must not be negative");
+        }
+        int step = stepOf(seatsTaken.getOpaque(screening * STRIDE), adultTickets + childTickets);
+        return new PriceQuote(this, screening, step, adultTickets, childTickets,
+                curve.getPrice(step, TicketType.ADULT),
+                curve.getPrice(step, TicketType.CHILD));
+    }
+
+    /**
+     * Claims the quoted order's seats at the quoted prices.
+     *
+     * @param quote a quote from this DynamicPricing that has not been charged
+     * @return the number of seats that were taken before this order
+     * @throws PriceChangedException    if the screening is no longer on the quoted price step
+     * @throws InvalidPurchaseException if there are not enough seats left
+     * @throws IllegalStateException    if the quote has already been charged
+     */
+    public int charge(PriceQuote quote) throws InvalidPurchaseException {
+        checkIssuedHere(quote);
+        if (!quote.beginCharge()) {
+            throw new IllegalStateException("Price quote has already been charged");
+        }
+        boolean claimed = false;
+        try {
+            int taken = claim(quote);
+            claimed = true;
+            return taken;
+        } finally {
+            quote.endCharge(claimed);
+        }
+    }
+
+    private int claim(PriceQuote quote) throws InvalidPurchaseException {
+        int index = quote.getScreening() * STRIDE;
+        int seats = quote.getSeats();
+        while (true) {
+            long taken = seatsTaken.get(index);
+            if (taken + seats > curve.getCapacity()) {
+                throw new InvalidPurchaseException("Not enough seats left for this screening");
+            }
+            if (stepOf(taken, seats) != quote.getStep()) {
+                throw new PriceChangedException("Price has changed since it was quoted");
+            }
+            if (seatsTaken.compareAndSet(index, taken, taken + seats)) {
+                return (int) taken;
+            }
+        }
+    }
+
+    /**
+     * Gives back the seats of a charged quote, e.g. when payment fails. Does
+     * nothing if the quote was never charged or has already been released.
+     *
+     * @param quote a quote from this DynamicPricing
+     * @return whether any seats were given back
+     */
+    public boolean release(PriceQuote quote) {
+        checkIssuedHere(quote);
+        if (!quote.beginRelease()) {
+            return false;
+        }
+        seatsTaken.getAndAdd(quote.getScreening() * STRIDE, -quote.getSeats());
+        return true;
+    }
+
+    /**
+     * @param screening the screening
+     * @return the number of seats taken, possibly slightly out of date
+     */
+    public int getSeatsTaken(int screening) {
+        checkScreening(screening);
+        return (int) seatsTaken.getOpaque(screening * STRIDE);
+    }
+
+    public PriceCurve getCurve() {
+        return curve;
+    }
+
+    // The step of the order's last seat
+    private int stepOf(long seatsTaken, int seats) {
+        return curve.stepAt((int) (seatsTaken + Math.max(seats, 1) - 1));
+    }
+
+    private void checkIssuedHere(PriceQuote quote) {
+        if (quote.getPricing() != this) {
+            throw new IllegalArgumentException("Price quote was not issued by this DynamicPricing");
+        }
+    }
+
+    private void checkScreening(int screening) {
+        if (screening < 0 || screening >= screenings) {
+            throw new IllegalArgumentException("Unknown screening " + screening);
+        }
+    }
+}
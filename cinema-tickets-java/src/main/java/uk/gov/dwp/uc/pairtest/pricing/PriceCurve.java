@@ -0,0 +1,102 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+
+/**
+ * Immutable step curve of ADULT and CHILD prices against occupancy. Each step
+ * starts at a percentage of the screening's capacity and adds a markup to the
+ * TicketType price; below the first step the base price applies. Infants are
+ * always free.
+ *
+ * The step for every possible number of seats taken is worked out up front,
+ * so finding a price is two array reads.
+ */
+public final class PriceCurve {
+
+    private static final int MAX_STEPS = Byte.MAX_VALUE;
+
+    private final int capacity;
+    private final byte[] stepBySeatsTaken;
+    private final int[] adultPrices;
+    private final int[] childPrices;
+
+    /**
+     * @param capacity          seats in the screening
+     * @param thresholdPercents occupancy, as a percentage of capacity, at which each step starts (ascending)
+     * @param markupPercents    markup over the base price for each step
+     * @throws IllegalArgumentException if the steps are out of range or out of order
+     */
+    public PriceCurve(int capacity, int[] thresholdPercents, int[] markupPercents) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (thresholdPercents.length != markupPercents.length || thresholdPercents.length >= MAX_STEPS) {
+            throw new IllegalArgumentException("Each step needs one threshold and one markup");
+        }
+        int steps = thresholdPercents.length + 1;
+        this.capacity = capacity;
+        this.adultPrices = new int[steps];
+        this.childPrices = new int[steps];
+        adultPrices[0] = TicketType.ADULT.getPrice();
+        childPrices[0] = TicketType.CHILD.getPrice();
+        int[] stepStarts = new int[steps];
+        for (int i = 0; i < thresholdPercents.length; i++) {
+            if (thresholdPercents[i] <= 0 || thresholdPercents[i] > 100
+                    || (i > 0 && thresholdPercents[i] <= thresholdPercents[i - 1])) {
+                throw new IllegalArgumentException("Thresholds must be ascending percentages between 1 and 100");
+            }
+            if (markupPercents[i] < 0) {
+                throw new IllegalArgumentException("Markup must not be negative");
+            }
+            // First seat count at or above the threshold
+            stepStarts[i + 1] = (int) ((capacity * (long) thresholdPercents[i] + 99) / 100);
+            adultPrices[i + 1] = markUp(TicketType.ADULT.getPrice(), markupPercents[i]);
+            childPrices[i + 1] = markUp(TicketType.CHILD.getPrice(), markupPercents[i]);
+        }
+        this.stepBySeatsTaken = new byte[capacity + 1];
+        int step = 0;
+        for (int seats = 0; seats <= capacity; seats++) {
+            while (step + 1 < steps && seats >= stepStarts[step + 1]) {
+                step++;
+            }
+            stepBySeatsTaken[seats] = (byte) step;
+        }
+    }
+
+    private static int markUp(int price, int markupPercent) {
+        // Rounded down to whole pounds
+        return (int) ((long) price * (100 + markupPercent) / 100);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getStepCount() {
+        return adultPrices.length;
+    }
+
+    /**
+     * @param seatsTaken seats already taken in the screening
+     * @return the price step that applies
+     */
+    public int stepAt(int seatsTaken) {
+        return stepBySeatsTaken[Math.max(0, Math.min(seatsTaken, capacity))];
+    }
+
+    /**
+     * @param step       a step from {@link #stepAt(int)}
+     * @param ticketType the type of ticket
+     * @return the price of one ticket of that type at that step
+     */
+    public int getPrice(int step, TicketType ticketType) {
+        switch (ticketType) {
+            case ADULT:
+                return adultPrices[step];
+            case CHILD:
+                return childPrices[step];
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+
+/**
+ * Price quoted to a customer for an order at one screening. Issued by
+ * {@link DynamicPricing#quote}; charging it either takes exactly these prices
+ * or fails with a PriceChangedException.
+ *
+ * The prices never change. The quote also records whether its seats are
+ * currently claimed, so it can be charged at most once and its seats given
+ * back at most once.
+ */
+public final class PriceQuote {
+
+    private static final int NOT_CHARGED = 0;
+    private static final int CHARGING = 1;
+    private static final int CHARGED = 2;
+    private static final int RELEASED = 3;
+
+    // A field updater rather than an AtomicInteger, to keep quoting to one allocation
+    private static final AtomicIntegerFieldUpdater<PriceQuote> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(PriceQuote.class, "state");
+
+    private final DynamicPricing pricing;
+    private final int screening;
+    private final int step;
+    private final int adultTickets;
+    private final int childTickets;
+    private final int adultPrice;
+    private final int childPrice;
+    private volatile int state = NOT_CHARGED;
+
+    PriceQuote(DynamicPricing pricing, int screening, int step, int adultTickets, int childTickets, int adultPrice,
+            int childPrice) {
+        this.pricing = pricing;
+        this.screening = screening;
+        this.step = step;
+        this.adultTickets = adultTickets;
+        this.childTickets = childTickets;
+        this.adultPrice = adultPrice;
+        this.childPrice = childPrice;
+    }
+
+    DynamicPricing getPricing() {
+        return pricing;
+    }
+
+    boolean beginCharge() {
+        return STATE.compareAndSet(this, NOT_CHARGED, CHARGING);
+    }
+
+    void endCharge(boolean claimed) {
+        state = claimed ? CHARGED : NOT_CHARGED;
+    }
+
+    boolean beginRelease() {
+        return STATE.compareAndSet(this, CHARGED, RELEASED);
+    }
+
+    /**
+     * @return whether the quote's seats are currently claimed
+     */
+    public boolean isCharged() {
+        return state == CHARGED;
+    }
+
+    public int getScreening() {
+        return screening;
+    }
+
+    /**
+     * @return the step of the price curve the quote was made at
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @param ticketType the type of ticket
+     * @return the number of tickets of that type quoted for (infants are not quoted)
+     */
+    public int getTickets(TicketType ticketType) {
+        switch (ticketType) {
+            case ADULT:
+                return adultTickets;
+            case CHILD:
+                return childTickets;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @param ticketType the type of ticket
+     * @return the quoted price of one ticket of that type
+     */
+    public int getPrice(TicketType ticketType) {
+        switch (ticketType) {
+            case ADULT:
+                return adultPrice;
+            case CHILD:
+                return childPrice;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return seats the order takes (infants do not take a seat)
+     */
+    public int getSeats() {
+        return adultTickets + childTickets;
+    }
+
+    public int getTotal() {
+        return adultTickets * adultPrice + childTickets * childPrice;
+    }
+}
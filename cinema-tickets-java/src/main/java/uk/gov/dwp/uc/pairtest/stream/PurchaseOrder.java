@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.stream;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+/**
+ * Immutable purchase pushed by an upstream system into a PurchaseProcessor.
+ */
+public final class PurchaseOrder {
+
+    private final Long accountId;
+    private final TicketTypeRequest[] ticketTypeRequests;
+
+    /**
+     * @param accountId          the purchasing account
+     * @param ticketTypeRequests the tickets requested (validated when processed)
+     */
+    public PurchaseOrder(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        this.accountId = accountId;
+        this.ticketTypeRequests = ticketTypeRequests == null ? null : ticketTypeRequests.clone();
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public TicketTypeRequest[] getTicketTypeRequests() {
+        return ticketTypeRequests == null ? null : ticketTypeRequests.clone();
+    }
+
+    // Avoids a defensive copy on the processing path
+    TicketTypeRequest[] ticketTypeRequests() {
+        return ticketTypeRequests;
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.stream;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+
+/**
+ * Result of processing a PurchaseOrder. A rejected or failed purchase is
+ * reported as an outcome rather than terminating the stream.
+ */
+public final class PurchaseOutcome {
+
+    private final PurchaseOrder order;
+    private final PurchaseResult result;
+    private final Throwable failure;
+
+    private PurchaseOutcome(PurchaseOrder order, PurchaseResult result, Throwable failure) {
+        this.order = order;
+        this.result = result;
+        this.failure = failure;
+    }
+
+    static PurchaseOutcome success(PurchaseOrder order, PurchaseResult result) {
+        return new PurchaseOutcome(order, result, null);
+    }
+
+    static PurchaseOutcome failure(PurchaseOrder order, Throwable failure) {
+        return new PurchaseOutcome(order, null, failure);
+    }
+
+    public PurchaseOrder getOrder() {
+        return order;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * The tickets issued, or null if the purchase failed.
+     */
+    public PurchaseResult getResult() {
+        return result;
+    }
+
+    /**
+     * Why the purchase failed (e.g. an InvalidPurchaseException), or null if it succeeded.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,287 @@
+package uk.gov.dwp.uc.pairtest.stream;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+
+/**
+ * Reactive Streams processor that runs each incoming PurchaseOrder through
+ * TicketService.purchaseTickets on an executor and emits a PurchaseOutcome.
+ *
+ * Backpressure: an order is only requested from upstream when there is both
+ * unfilled demand from downstream and a free processing slot, and a slot is
+ * not freed until its outcome has been delivered. At most {@code parallelism}
+ * orders are therefore held at any time (being paid for and reserved, or
+ * waiting to be emitted) however slow the subscriber is, and payment and
+ * reservation calls never run ahead of downstream demand.
+ *
+ * In {@link Ordering#ORDERED} mode outcomes are emitted in the order the
+ * orders arrived; in {@link Ordering#UNORDERED} mode they are emitted as soon
+ * as they complete.
+ *
+ * Rejected purchases are emitted as failed outcomes, as are purchases that
+ * throw an Error (which is then rethrown to the executor); only an upstream
+ * error terminates the stream with onError. Supports a single subscriber.
+ */
+public class PurchaseProcessor implements Flow.Processor<PurchaseOrder, PurchaseOutcome> {
+
+    /**
+     * Order in which outcomes are emitted.
+     */
+    public enum Ordering {
+        ORDERED,
+        UNORDERED
+    }
+
+    private final TicketService ticketService;
+    private final Executor executor;
+    private final int parallelism;
+    private final Ordering ordering;
+
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile Flow.Subscriber<? super PurchaseOutcome> downstream;
+    private final AtomicLong demand = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile Throwable requestError;
+
+    // Written only by upstream's onNext (which the spec serialises)
+    private volatile long received;
+
+    // Outcomes waiting to be emitted: a slot per in-flight order when ordered,
+    // otherwise a queue in completion order
+    private final AtomicReferenceArray<PurchaseOutcome> orderedOutcomes;
+    private final Queue<PurchaseOutcome> unorderedOutcomes = new ConcurrentLinkedQueue<>();
+
+    // Only touched inside drain()
+    private final AtomicInteger drainWip = new AtomicInteger();
+    private long emitted;
+    private long requestedUpstream;
+    private boolean terminated;
+
+    /**
+     * @param ticketService service used to make each purchase
+     * @param executor      runs the (blocking) purchases
+     * @param parallelism   maximum number of orders held at once
+     * @param ordering      whether outcomes keep the order of the input
+     */
+    public PurchaseProcessor(TicketService ticketService, Executor executor, int parallelism, Ordering ordering) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.ticketService = ticketService;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ordering = ordering;
+        this.orderedOutcomes = new AtomicReferenceArray<>(ordering == Ordering.ORDERED ? parallelism : 0);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super PurchaseOutcome> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("PurchaseProcessor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new DownstreamSubscription());
+        // Only start emitting once onSubscribe has returned
+        downstream = subscriber;
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (!upstream.compareAndSet(null, subscription)) {
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(PurchaseOrder order) {
+        long sequence = received;
+        received = sequence + 1;
+        try {
+            executor.execute(() -> process(sequence, order));
+        } catch (RejectedExecutionException e) {
+            complete(sequence, PurchaseOutcome.failure(order, e));
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    private void process(long sequence, PurchaseOrder order) {
+        PurchaseOutcome outcome;
+        try {
+            outcome = PurchaseOutcome.success(order,
+                    ticketService.purchaseTickets(order.getAccountId(), order.ticketTypeRequests()));
+        } catch (RuntimeException e) {
+            outcome = PurchaseOutcome.failure(order, e);
+        } catch (Error e) {
+            // The slot must still be freed, or ORDERED mode stalls and the stream never completes
+            complete(sequence, PurchaseOutcome.failure(order, e));
+            throw e;
+        }
+        complete(sequence, outcome);
+    }
+
+    private void complete(long sequence, PurchaseOutcome outcome) {
+        if (ordering == Ordering.ORDERED) {
+            orderedOutcomes.set((int) (sequence % parallelism), outcome);
+        } else {
+            unorderedOutcomes.offer(outcome);
+        }
+        drain();
+    }
+
+    private PurchaseOutcome pollOutcome() {
+        if (ordering == Ordering.UNORDERED) {
+            return unorderedOutcomes.poll();
+        }
+        int slot = (int) (emitted % parallelism);
+        PurchaseOutcome outcome = orderedOutcomes.get(slot);
+        if (outcome != null) {
+            orderedOutcomes.set(slot, null);
+        }
+        return outcome;
+    }
+
+    /**
+     * Emits ready outcomes and requests more orders. Runs on whichever thread
+     * calls it; the work-in-progress counter ensures only one thread is inside
+     * at a time, so downstream signals are serialised.
+     */
+    private void drain() {
+        if (drainWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            drainOnce();
+            missed = drainWip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void drainOnce() {
+        Flow.Subscriber<? super PurchaseOutcome> subscriber = downstream;
+        if (subscriber == null || terminated) {
+            return;
+        }
+        if (cancelled) {
+            terminated = true;
+            cancelUpstream();
+            return;
+        }
+        Throwable badRequest = requestError;
+        if (badRequest != null) {
+            terminated = true;
+            cancelUpstream();
+            subscriber.onError(badRequest);
+            return;
+        }
+
+        long requested = demand.get();
+        long delivered = 0;
+        while (delivered != requested && !cancelled) {
+            PurchaseOutcome outcome = pollOutcome();
+            if (outcome == null) {
+                break;
+            }
+            subscriber.onNext(outcome);
+            emitted++;
+            delivered++;
+        }
+        if (delivered > 0 && requested != Long.MAX_VALUE) {
+            demand.addAndGet(-delivered);
+        }
+
+        if (upstreamDone && emitted == received) {
+            terminated = true;
+            Throwable error = upstreamError;
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+            return;
+        }
+        requestMore();
+    }
+
+    private void requestMore() {
+        Flow.Subscription subscription = upstream.get();
+        if (subscription == null || upstreamDone || cancelled) {
+            return;
+        }
+        // Orders requested but not yet emitted will use up demand and slots
+        long outstanding = requestedUpstream - emitted;
+        long want = Math.min(parallelism - outstanding, demand.get() - outstanding);
+        if (want > 0) {
+            requestedUpstream += want;
+            subscription.request(want);
+        }
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private final class DownstreamSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Request must be positive but was " + n);
+            } else {
+                demand.getAndUpdate(current -> {
+                    long sum = current + n;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+    }
+}
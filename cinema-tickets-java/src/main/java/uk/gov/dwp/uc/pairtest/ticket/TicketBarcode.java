@@ -0,0 +1,105 @@
+package uk.gov.dwp.uc.pairtest.ticket;
+
+import java.util.Arrays;
+
+/**
+ * Compact barcode text for a ticket ID: the ID in Crockford base32 (13
+ * characters, most significant first) followed by a mod-37 check symbol.
+ *
+ * The alphabet leaves out I, L, O and U so a code can be read out or typed in
+ * without confusion; decoding accepts lower case and reads I and L as 1 and
+ * O as 0. Because 37 is prime, the check symbol catches any single wrong
+ * character and any swap of two adjacent characters.
+ *
+ * Encoding writes into a caller-supplied buffer so that printing or scanning
+ * many tickets does not allocate a String per ticket.
+ */
+public final class TicketBarcode {
+
+    /** Characters in a barcode, including the check symbol. */
+    public static final int LENGTH = 14;
+
+    private static final int DATA_LENGTH = LENGTH - 1;
+    private static final char[] SYMBOLS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ*~$=U".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            VALUES[SYMBOLS[i]] = (byte) i;
+            VALUES[Character.toLowerCase(SYMBOLS[i])] = (byte) i;
+        }
+        VALUES['O'] = VALUES['o'] = 0;
+        VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    }
+
+    private TicketBarcode() {
+    }
+
+    /**
+     * Writes the barcode for a ticket ID into {@code buffer}.
+     *
+     * @param ticketId the ticket ID
+     * @param buffer   buffer with at least {@link #LENGTH} characters free from {@code offset}
+     * @param offset   index of the first character
+     * @return the number of characters written, always {@link #LENGTH}
+     */
+    public static int encode(long ticketId, char[] buffer, int offset) {
+        long value = ticketId;
+        for (int i = DATA_LENGTH - 1; i >= 0; i--) {
+            buffer[offset + i] = SYMBOLS[(int) value & 31];
+            value >>>= 5;
+        }
+        buffer[offset + DATA_LENGTH] = SYMBOLS[(int) Long.remainderUnsigned(ticketId, 37)];
+        return LENGTH;
+    }
+
+    /**
+     * @return the barcode for a ticket ID as a new String
+     */
+    public static String encode(long ticketId) {
+        char[] buffer = new char[LENGTH];
+        encode(ticketId, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * @param barcode a barcode, e.g. as scanned at the door
+     * @return the ticket ID it encodes
+     * @throws IllegalArgumentException if the barcode is malformed or its check symbol does not match
+     */
+    public static long decode(CharSequence barcode) {
+        if (barcode == null || barcode.length() != LENGTH) {
+            throw new IllegalArgumentException("Barcode must be " + LENGTH + " characters");
+        }
+        long value = 0;
+        for (int i = 0; i < DATA_LENGTH; i++) {
+            int digit = valueOf(barcode.charAt(i));
+            // The first character only carries the top 4 bits
+            if (digit < 0 || digit > 31 || (i == 0 && digit > 15)) {
+                throw new IllegalArgumentException("Invalid barcode character at position " + i);
+            }
+            value = value << 5 | digit;
+        }
+        if (valueOf(barcode.charAt(DATA_LENGTH)) != Long.remainderUnsigned(value, 37)) {
+            throw new IllegalArgumentException("Barcode check symbol does not match");
+        }
+        return value;
+    }
+
+    /**
+     * @return whether {@code barcode} is well formed with a matching check symbol
+     */
+    public static boolean isValid(CharSequence barcode) {
+        try {
+            decode(barcode);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static int valueOf(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+}
@@ -0,0 +1,145 @@
+package uk.gov.dwp.uc.pairtest.ticket;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free generator of unique, time-ordered 64-bit ticket IDs.
+ *
+ * An ID is made up of (most significant first) an unused sign bit, 41 bits
+ * of milliseconds since {@link #EPOCH_MILLIS} (about 69 years), a 10-bit node
+ * ID and a 12-bit sequence. Each node (JVM) is configured with its own node
+ * ID, so generators never need to coordinate to stay unique.
+ *
+ * The millisecond and sequence are held together as one counter, so a whole
+ * order's IDs are reserved with a single compare-and-set. A batch that runs
+ * past the 4096 sequence values of the current millisecond borrows from the
+ * next one rather than waiting, and a clock that steps backwards is ignored
+ * until it catches up, so the IDs from a generator always increase.
+ */
+public class TicketIdGenerator {
+
+    /** 2024-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    public static final int MAX_NODE_ID = 1023;
+
+    /** System property holding this JVM's node ID */
+    public static final String NODE_ID_PROPERTY = "tickets.nodeId";
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_COUNTER = (1L << (41 + SEQUENCE_BITS)) - 1;
+
+    private final long nodeBits;
+    private final Clock clock;
+
+    // Milliseconds since the epoch << SEQUENCE_BITS | sequence, of the last ID issued
+    private final AtomicLong counter = new AtomicLong(-1);
+
+    /**
+     * @param nodeId unique ID of this node, 0 to {@link #MAX_NODE_ID}
+     */
+    public TicketIdGenerator(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    /**
+     * @param nodeId unique ID of this node, 0 to {@link #MAX_NODE_ID}
+     * @param clock  source of the timestamps
+     */
+    public TicketIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * There is no default node ID: two JVMs that both fell back to one would
+     * issue colliding IDs.
+     *
+     * @return a generator for the node ID set with -Dtickets.nodeId
+     * @throws IllegalStateException if the property is missing or not a valid node ID
+     */
+    public static TicketIdGenerator fromSystemProperty() {
+        return new TicketIdGenerator(parseNodeId(System.getProperty(NODE_ID_PROPERTY)));
+    }
+
+    static int parseNodeId(String value) {
+        if (value == null) {
+            throw new IllegalStateException("No node ID configured: set -D" + NODE_ID_PROPERTY + "=<0-"
+                    + MAX_NODE_ID + ">, unique to this JVM, or supply a TicketIdGenerator");
+        }
+        int nodeId;
+        try {
+            nodeId = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            nodeId = -1;
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException(NODE_ID_PROPERTY + " must be between 0 and " + MAX_NODE_ID
+                    + " but was \"" + value + "\"");
+        }
+        return nodeId;
+    }
+
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    /**
+     * Issues {@code count} consecutive IDs into {@code ids}.
+     *
+     * @param ids    array to write the IDs to
+     * @param offset index of the first ID
+     * @param count  number of IDs to issue
+     */
+    public void nextIds(long[] ids, int offset, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative");
+        }
+        if (count == 0) {
+            return;
+        }
+        long first = reserve(count);
+        for (int i = 0; i < count; i++) {
+            ids[offset + i] = toId(first + i);
+        }
+    }
+
+    private long reserve(int count) {
+        long now = Math.max(0, clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long current = counter.get();
+            long first = Math.max(current + 1, now);
+            long last = first + count - 1;
+            if (last > MAX_COUNTER) {
+                throw new IllegalStateException("Ticket ID timestamp overflow");
+            }
+            if (counter.compareAndSet(current, last)) {
+                return first;
+            }
+        }
+    }
+
+    private long toId(long value) {
+        return (value >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (value & SEQUENCE_MASK);
+    }
+
+    /**
+     * @return when the ID was issued, in epoch milliseconds
+     */
+    public static long timestampOf(long ticketId) {
+        return (ticketId >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * @return the node that issued the ID
+     */
+    public static int nodeOf(long ticketId) {
+        return (int) (ticketId >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
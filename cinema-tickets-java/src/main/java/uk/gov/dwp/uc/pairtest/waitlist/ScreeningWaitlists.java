@@ -0,0 +1,56 @@
+package uk.gov.dwp.uc.pairtest.waitlist;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of waitlists, one per screening, created on first use.
+ */
+public class ScreeningWaitlists {
+
+    private final int capacityPerScreening;
+    private final ConcurrentMap<Long, Waitlist> waitlists = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacityPerScreening maximum number of waiting buyers per screening
+     */
+    public ScreeningWaitlists(int capacityPerScreening) {
+        if (capacityPerScreening <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacityPerScreening = capacityPerScreening;
+    }
+
+    /**
+     * Returns the waitlist for the screening, creating it if needed.
+     */
+    public Waitlist forScreening(long screeningId) {
+        Waitlist waitlist = waitlists.get(screeningId);
+        if (waitlist != null) {
+            return waitlist;
+        }
+        return waitlists.computeIfAbsent(screeningId, id -> new Waitlist(capacityPerScreening));
+    }
+
+    /**
+     * Releases seats for a screening to its waiters. Does nothing if nobody has
+     * ever waited for the screening.
+     */
+    public void release(long screeningId, int seats) {
+        Waitlist waitlist = waitlists.get(screeningId);
+        if (waitlist != null) {
+            waitlist.release(seats);
+        }
+    }
+
+    /**
+     * Drops the waitlist once a screening has started or been cancelled,
+     * closing it so that every buyer still waiting has their future cancelled.
+     */
+    public void remove(long screeningId) {
+        Waitlist waitlist = waitlists.remove(screeningId);
+        if (waitlist != null) {
+            waitlist.close();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package uk.gov.dwp.uc.pairtest.waitlist;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.WaitlistFullException;
+
+/**
+ * Waitlist for a single sold-out screening.
+ *
+ * Buyers join once and are notified through {@link WaitlistEntry#granted()} when
+ * seats become available, instead of retrying purchaseTickets in a loop. Joining
+ * again while already waiting returns the existing entry, so a retry storm from
+ * one buyer becomes a single queued entry.
+ *
+ * Entries are held in a bounded, lock-free FIFO ring buffer. Any number of
+ * threads may join concurrently; granting is done by whichever thread releases
+ * seats, with a work-in-progress counter making sure only one thread drains at
+ * a time (the others hand their work over rather than block). Seats are granted
+ * strictly in arrival order: if the buyer at the head needs more seats than are
+ * available, later (smaller) orders wait behind them.
+ *
+ * Seats passed to {@link #release(int)} are held for waiters until granted or
+ * taken back with {@link #reclaim()}.
+ *
+ * Once the screening has started or been cancelled, {@link #close()} cancels
+ * every entry still waiting so that nobody is left blocked on its future.
+ */
+public class Waitlist {
+
+    private final int mask;
+    // Vyukov-style bounded queue: each slot carries a sequence number telling
+    // producers and the consumer whose turn it is to use the slot.
+    private final AtomicLongArray slotSequences;
+    private final AtomicReferenceArray<WaitlistEntry> slots;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final ConcurrentMap<Long, WaitlistEntry> waitingByAccount = new ConcurrentHashMap<>();
+    private final AtomicInteger availableSeats = new AtomicInteger();
+    private final AtomicInteger drainWip = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * @param capacity maximum number of waiting buyers, rounded up to a power of two
+     */
+    public Waitlist(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + (1 << 30));
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slotSequences = new AtomicLongArray(size);
+        this.slots = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            slotSequences.set(i, i);
+        }
+    }
+
+    /**
+     * Joins the waitlist, or returns the buyer's existing entry if they are
+     * already waiting.
+     *
+     * @param accountId          the buyer's account
+     * @param ticketTypeRequests the order the buyer wants to place once seats are available
+     * @return the buyer's entry
+     * @throws WaitlistFullException    if the waitlist is at capacity
+     * @throws IllegalArgumentException if the order needs no seats
+     * @throws IllegalStateException    if the waitlist has been closed
+     */
+    public WaitlistEntry join(long accountId, TicketTypeRequest... ticketTypeRequests) {
+        checkOpen();
+        WaitlistEntry existing = waitingByAccount.get(accountId);
+        if (existing != null) {
+            return existing;
+        }
+        int seats = seatsRequired(ticketTypeRequests);
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Order must require at least one seat");
+        }
+        WaitlistEntry entry = new WaitlistEntry(this, accountId, seats, ticketTypeRequests.clone());
+        existing = waitingByAccount.putIfAbsent(accountId, entry);
+        if (existing != null) {
+            return existing;
+        }
+        if (!offer(entry)) {
+            // Cancelled entries at the head may still hold the slots; drop them and try once more
+            drain();
+            if (!offer(entry)) {
+                waitingByAccount.remove(accountId, entry);
+                throw new WaitlistFullException("Waitlist is full");
+            }
+        }
+        if (closed && entry.cancel()) {
+            // Closed while we were joining, possibly after close() looked for waiters
+            checkOpen();
+        }
+        // Seats may already be waiting for someone to claim them
+        drain();
+        return entry;
+    }
+
+    /**
+     * Closes the waitlist once its screening has started or been cancelled.
+     * Every entry still waiting is cancelled, completing its future with a
+     * CancellationException, and later joins are refused. Seats released but
+     * not granted can still be taken back with {@link #reclaim()}.
+     */
+    public void close() {
+        closed = true;
+        for (WaitlistEntry entry : waitingByAccount.values()) {
+            entry.cancel();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Makes seats available to waiters, e.g. after a cancellation or when a hold
+     * expires, and grants them to buyers at the head of the queue.
+     *
+     * @param seats number of seats released
+     */
+    public void release(int seats) {
+        if (seats < 0) {
+            throw new IllegalArgumentException("Seats released must not be negative");
+        }
+        availableSeats.addAndGet(seats);
+        drain();
+    }
+
+    /**
+     * Takes back released seats that have not been granted yet, e.g. to return
+     * them to general sale once nobody is waiting.
+     *
+     * @return the number of seats reclaimed
+     */
+    public int reclaim() {
+        return availableSeats.getAndSet(0);
+    }
+
+    /**
+     * Released seats not yet granted to a waiter.
+     */
+    public int getAvailableSeats() {
+        return availableSeats.get();
+    }
+
+    /**
+     * Number of queued entries, including cancelled entries not yet removed.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public boolean isWaiting(long accountId) {
+        return waitingByAccount.containsKey(accountId);
+    }
+
+    long headIndex() {
+        return head;
+    }
+
+    void removed(WaitlistEntry entry) {
+        waitingByAccount.remove(entry.getAccountId(), entry);
+    }
+
+    void cancelled(WaitlistEntry entry) {
+        removed(entry);
+        // The entry may have been blocking smaller orders behind it, and its slot can now be freed
+        drain();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Waitlist is closed");
+        }
+    }
+
+    private static int seatsRequired(TicketTypeRequest... ticketTypeRequests) {
+        if (ticketTypeRequests == null) {
+            return 0;
+        }
+        int seats = 0;
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            // Infants sit on an adult's lap
+            if (request.getTicketType() != TicketType.INFANT) {
+                seats += request.getNoOfTickets();
+            }
+        }
+        return seats;
+    }
+
+    private boolean offer(WaitlistEntry entry) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = slotSequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        int index = (int) position & mask;
+        entry.enqueuedAt(position);
+        slots.set(index, entry);
+        // Publish the slot to the consumer
+        slotSequences.set(index, position + 1);
+        return true;
+    }
+
+    // Only called by the draining thread
+    private WaitlistEntry peek() {
+        long position = head;
+        int index = (int) position & mask;
+        if (slotSequences.get(index) != position + 1) {
+            return null;
+        }
+        return slots.get(index);
+    }
+
+    // Only called by the draining thread, after a successful peek
+    private void poll() {
+        long position = head;
+        int index = (int) position & mask;
+        slots.set(index, null);
+        // Hand the slot back to producers for the next lap of the ring
+        slotSequences.set(index, position + mask + 1);
+        head = position + 1;
+    }
+
+    private void drain() {
+        if (drainWip.getAndIncrement() != 0) {
+            // Another thread is draining and will pick up our change
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            grantWhileSeatsAvailable();
+            missed = drainWip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void grantWhileSeatsAvailable() {
+        while (true) {
+            WaitlistEntry entry = peek();
+            if (entry == null) {
+                return;
+            }
+            if (entry.isCancelled()) {
+                poll();
+                continue;
+            }
+            int available = availableSeats.get();
+            if (available < entry.getSeats()) {
+                return;
+            }
+            if (!availableSeats.compareAndSet(available, available - entry.getSeats())) {
+                continue;
+            }
+            poll();
+            if (!entry.grant()) {
+                // Cancelled while we were taking the seats; give them back
+                availableSeats.addAndGet(entry.getSeats());
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package uk.gov.dwp.uc.pairtest.waitlist;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+/**
+ * A buyer's place on a screening's waitlist.
+ *
+ * The future completes with this entry once seats have been set aside for the
+ * buyer, at which point they should go on to purchase their tickets. Callbacks
+ * registered with the non-async CompletableFuture methods run on the thread
+ * that released the seats (or cancelled the entry ahead), so slow work should
+ * use the async variants.
+ */
+public final class WaitlistEntry {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final Waitlist waitlist;
+    private final long accountId;
+    private final int seats;
+    private final TicketTypeRequest[] ticketTypeRequests;
+    private final CompletableFuture<WaitlistEntry> granted = new CompletableFuture<>();
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+
+    // Index in the waitlist's queue, set once the entry has been enqueued
+    private volatile long sequence = -1;
+
+    WaitlistEntry(Waitlist waitlist, long accountId, int seats, TicketTypeRequest[] ticketTypeRequests) {
+        this.waitlist = waitlist;
+        this.accountId = accountId;
+        this.seats = seats;
+        this.ticketTypeRequests = ticketTypeRequests;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Number of seats the buyer is waiting for (infants do not need a seat).
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    public TicketTypeRequest[] getTicketTypeRequests() {
+        return ticketTypeRequests.clone();
+    }
+
+    /**
+     * Completes when seats have been set aside for this buyer. Completes
+     * exceptionally with a CancellationException if the entry is cancelled.
+     */
+    public CompletableFuture<WaitlistEntry> granted() {
+        return granted;
+    }
+
+    /**
+     * Returns the buyer's 1-based position in the queue, or 0 if they are no
+     * longer waiting. Entries ahead that have been cancelled but not yet removed
+     * are still counted, so the position is an upper bound.
+     */
+    public long position() {
+        if (state.get() != WAITING) {
+            return 0;
+        }
+        long index = sequence;
+        if (index < 0) {
+            // Still being enqueued; everyone currently queued is ahead
+            return waitlist.size() + 1;
+        }
+        return Math.max(1, index - waitlist.headIndex() + 1);
+    }
+
+    public boolean isWaiting() {
+        return state.get() == WAITING;
+    }
+
+    public boolean isGranted() {
+        return state.get() == GRANTED;
+    }
+
+    /**
+     * Leaves the waitlist. Has no effect if seats have already been granted.
+     * Buyers queued behind this entry are granted any seats it was waiting for.
+     *
+     * @return true if the entry was cancelled by this call
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(WAITING, CANCELLED)) {
+            return false;
+        }
+        granted.cancel(false);
+        waitlist.cancelled(this);
+        return true;
+    }
+
+    boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    void enqueuedAt(long sequence) {
+        this.sequence = sequence;
+    }
+
+    boolean grant() {
+        if (!state.compareAndSet(WAITING, GRANTED)) {
+            return false;
+        }
+        waitlist.removed(this);
+        granted.complete(this);
+        return true;
+    }
+}
@@ -1,19 +1,37 @@
 package uk.gov.dwp.uc.pairtest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.stream.LongStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.discount.DiscountEngine;
+import uk.gov.dwp.uc.pairtest.discount.GroupDiscount;
+import uk.gov.dwp.uc.pairtest.discount.Promo;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
 import uk.gov.dwp.uc.pairtest.domain.TicketType;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PriceChangedException;
+import uk.gov.dwp.uc.pairtest.pricing.DynamicPricing;
+import uk.gov.dwp.uc.pairtest.pricing.PriceCurve;
+import uk.gov.dwp.uc.pairtest.pricing.PriceQuote;
+import uk.gov.dwp.uc.pairtest.ticket.TicketBarcode;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
 
 class TicketServiceImplTest {
 
@@ -25,7 +43,7 @@ class TicketServiceImplTest {
     void setUp() {
         paymentService = Mockito.mock(TicketPaymentService.class);
         reservationService = Mockito.mock(SeatReservationService.class);
-        ticketService = new TicketServiceImpl(paymentService, reservationService);
+        ticketService = builder().build();
     }
 
     // Test valid purchases
@@ -342,4 +360,258 @@ class TicketServiceImplTest {
 
         assertEquals("At least one ticket must be purchased", exception.getMessage());
     }
+
+    // Tests for purchase listener notifications
+    @Test
+    void testPurchaseListener_NotifiedPerTicketType() throws InvalidPurchaseException {
+        PurchaseListener listener = Mockito.mock(PurchaseListener.class);
+        ticketService = builder().purchaseListener(listener).build();
+
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 2),
+                new TicketTypeRequest(TicketType.INFANT, 1));
+
+        verify(listener).onTicketsPurchased(1L, TicketType.ADULT, 2, 50); // 2 adults * £25
+        verify(listener).onTicketsPurchased(1L, TicketType.INFANT, 1, 0);
+        verify(listener, never()).onTicketsPurchased(Mockito.anyLong(), Mockito.eq(TicketType.CHILD),
+                Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void testPurchaseListener_NotNotifiedForInvalidPurchase() {
+        PurchaseListener listener = Mockito.mock(PurchaseListener.class);
+        ticketService = builder().purchaseListener(listener).build();
+
+        assertThrows(InvalidPurchaseException.class, () -> {
+            ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.CHILD, 1));
+        });
+
+        verify(listener, never()).onTicketsPurchased(Mockito.anyLong(), Mockito.any(), Mockito.anyInt(),
+                Mockito.anyInt());
+    }
+
+    @Test
+    void testPurchaseListener_FailureDoesNotFailPaidPurchase() throws InvalidPurchaseException {
+        PurchaseListener listener = Mockito.mock(PurchaseListener.class);
+        doThrow(new IllegalStateException("Analytics unavailable")).when(listener)
+                .onTicketsPurchased(Mockito.anyLong(), Mockito.eq(TicketType.ADULT), Mockito.anyInt(),
+                        Mockito.anyInt());
+        ticketService = builder().purchaseListener(listener).build();
+
+        PurchaseResult result = ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 1),
+                new TicketTypeRequest(TicketType.CHILD, 1));
+
+        assertEquals(2, result.getTicketCount());
+        verify(paymentService).makePayment(1L, 40);
+        verify(listener).onTicketsPurchased(1L, TicketType.CHILD, 1, 15);
+    }
+
+    // Tests for issued tickets
+    @Test
+    void testValidPurchase_IssuesTicketPerSeatAndInfant() throws InvalidPurchaseException {
+        PurchaseResult result = ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.INFANT, 1),
+                new TicketTypeRequest(TicketType.ADULT, 2), new TicketTypeRequest(TicketType.CHILD, 1));
+
+        assertEquals(1L, result.getAccountId());
+        assertEquals(4, result.getTicketCount());
+        assertEquals(65, result.getTotalAmount());
+        assertEquals(3, result.getTotalSeats());
+        assertEquals(TicketType.ADULT, result.getTicketType(0));
+        assertEquals(TicketType.ADULT, result.getTicketType(1));
+        assertEquals(TicketType.CHILD, result.getTicketType(2));
+        assertEquals(TicketType.INFANT, result.getTicketType(3));
+        assertEquals(4, LongStream.of(result.getTicketIds()).distinct().count());
+    }
+
+    @Test
+    void testValidPurchase_TicketIdsComeFromInjectedGenerator() throws InvalidPurchaseException {
+        ticketService = builder().ticketIdGenerator(new TicketIdGenerator(42)).build();
+
+        PurchaseResult result = ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 25));
+
+        for (int i = 0; i < result.getTicketCount(); i++) {
+            assertEquals(42, TicketIdGenerator.nodeOf(result.getTicketId(i)));
+            assertEquals(result.getTicketId(i), TicketBarcode.decode(TicketBarcode.encode(result.getTicketId(i))));
+        }
+    }
+
+    // Tests for discounts
+    @Test
+    void testPromoCode_DiscountChargedAndSharedBetweenTicketTypes() throws InvalidPurchaseException {
+        PurchaseListener listener = Mockito.mock(PurchaseListener.class);
+        ticketService = builder().purchaseListener(listener)
+                .discountEngine(new DiscountEngine(List.of(new Promo("HALF", 50, 0)), List.of())).build();
+
+        PurchaseResult result = ticketService.purchaseTickets(PurchaseRequest.of(1L,
+                new TicketTypeRequest(TicketType.ADULT, 2), new TicketTypeRequest(TicketType.CHILD, 2))
+                .withPromoCode("half"));
+
+        verify(paymentService).makePayment(1L, 40); // (2 adults * £25 + 2 children * £15) * 50%
+        assertEquals(40, result.getTotalAmount());
+        verify(listener).onTicketsPurchased(1L, TicketType.ADULT, 2, 25);
+        verify(listener).onTicketsPurchased(1L, TicketType.CHILD, 2, 15);
+    }
+
+    @Test
+    void testGroupDiscount_AppliedWithoutPromoCode() throws InvalidPurchaseException {
+        ticketService = builder()
+                .discountEngine(new DiscountEngine(List.of(), List.of(new GroupDiscount(10, 10)))).build();
+
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 10));
+
+        verify(paymentService).makePayment(1L, 225); // 10 adults * £25 less 10%
+    }
+
+    @Test
+    void testGroupDiscount_InfantsDoNotCountTowardsGroup() throws InvalidPurchaseException {
+        ticketService = builder()
+                .discountEngine(new DiscountEngine(List.of(), List.of(new GroupDiscount(10, 10)))).build();
+
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 5),
+                new TicketTypeRequest(TicketType.INFANT, 5));
+        ticketService.purchaseTickets(2L, new TicketTypeRequest(TicketType.ADULT, 5),
+                new TicketTypeRequest(TicketType.CHILD, 5));
+
+        verify(paymentService).makePayment(1L, 125); // 5 paid tickets, no group rate
+        verify(paymentService).makePayment(2L, 180); // (5 adults * £25 + 5 children * £15) less 10%
+    }
+
+    @Test
+    void testInvalidPurchase_UnknownPromoCode() {
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class, () -> {
+            ticketService.purchaseTickets(
+                    PurchaseRequest.of(1L, new TicketTypeRequest(TicketType.ADULT, 1)).withPromoCode("NOPE"));
+        });
+
+        assertEquals("Invalid promo code", exception.getMessage());
+        verify(paymentService, never()).makePayment(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    // Tests for dynamic pricing
+    @Test
+    void testDynamicPricing_ChargesQuotedPrice() throws InvalidPurchaseException {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+        ticketService = dynamicPricingService(pricing);
+        pricing.charge(pricing.quote(0, 5, 0));
+        PriceQuote quote = pricing.quote(0, 1, 1);
+
+        PurchaseResult result = ticketService.purchaseTickets(PurchaseRequest.of(1L,
+                new TicketTypeRequest(TicketType.ADULT, 1), new TicketTypeRequest(TicketType.CHILD, 1))
+                .withQuote(quote));
+
+        verify(paymentService).makePayment(1L, 48); // £30 adult + £18 child at 20% markup
+        assertEquals(quote.getTotal(), result.getTotalAmount());
+        assertEquals(7, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testDynamicPricing_StaleQuoteIsNotPaid() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+        ticketService = dynamicPricingService(pricing);
+        PriceQuote quote = pricing.quote(0, 1, 0);
+        pricing.charge(pricing.quote(0, 5, 0));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            assertThrows(PriceChangedException.class, () -> {
+                ticketService.purchaseTickets(
+                        PurchaseRequest.of(1L, new TicketTypeRequest(TicketType.ADULT, 1)).withQuote(quote));
+            });
+        } finally {
+            System.setOut(out);
+        }
+
+        verify(paymentService, never()).makePayment(Mockito.anyLong(), Mockito.anyInt());
+        assertEquals(5, pricing.getSeatsTaken(0));
+        assertFalse(output.toString().contains("Payment processed"), "A rejected purchase must not be logged");
+    }
+
+    @Test
+    void testDynamicPricing_SeatsReleasedWhenPaymentFails() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[0], new int[0]));
+        ticketService = dynamicPricingService(pricing);
+        doThrow(new IllegalStateException("Payment declined")).when(paymentService).makePayment(1L, 50);
+
+        assertThrows(IllegalStateException.class, () -> {
+            ticketService.purchaseTickets(
+                    PurchaseRequest.of(1L, new TicketTypeRequest(TicketType.ADULT, 2))
+                            .withQuote(pricing.quote(0, 2, 0)));
+        });
+
+        assertEquals(0, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testDynamicPricing_QuoteMustMatchRequests() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[0], new int[0]));
+        ticketService = dynamicPricingService(pricing);
+
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class, () -> {
+            ticketService.purchaseTickets(
+                    PurchaseRequest.of(1L, new TicketTypeRequest(TicketType.ADULT, 2))
+                            .withQuote(pricing.quote(0, 1, 0)));
+        });
+
+        assertEquals("Price quote does not match the tickets requested", exception.getMessage());
+        assertEquals(0, pricing.getSeatsTaken(0));
+    }
+
+    // Tests for packed orders
+    @Test
+    void testPackedOrder_PricedAndReservedLikeRequests() throws InvalidPurchaseException {
+        PurchaseResult result = ticketService.purchaseTickets(1L, TicketOrder.of(2, 1, 1));
+
+        verify(paymentService).makePayment(1L, 65); // 2 adults * £25 + 1 child * £15
+        verify(reservationService).reserveSeat(1L, 3);
+        assertEquals(4, result.getTicketCount());
+        assertEquals(1, result.getTicketCount(TicketType.INFANT));
+    }
+
+    @Test
+    void testPackedOrder_ValidatedLikeRequests() {
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class, () -> {
+            ticketService.purchaseTickets(1L, TicketOrder.of(1, 0, 2));
+        });
+
+        assertEquals("Each infant must be accompanied by an adult", exception.getMessage());
+        exception = assertThrows(InvalidPurchaseException.class, () -> {
+            ticketService.purchaseTickets(1L, TicketOrder.of(TicketOrder.MAX_COUNT, 0, 0));
+        });
+        assertEquals("Maximum of 25 tickets per purchase", exception.getMessage());
+        verify(paymentService, never()).makePayment(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void testPackedOrder_PromoCodeAndQuoteApplied() throws InvalidPurchaseException {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+        ticketService = builder()
+                .discountEngine(new DiscountEngine(List.of(new Promo("HALF", 50, 0)), List.of()))
+                .dynamicPricing(pricing).build();
+        pricing.charge(pricing.quote(0, 5, 0));
+
+        PurchaseResult result = ticketService.purchaseTickets(PurchaseRequest.ofOrder(1L, TicketOrder.of(1, 1, 0))
+                .withQuote(pricing.quote(0, 1, 1)).withPromoCode("HALF"));
+
+        verify(paymentService).makePayment(1L, 24); // (£30 adult + £18 child at 20% markup) * 50%
+        assertEquals(2, result.getTicketCount());
+        assertEquals(7, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testPackedOrder_ReservedBitsRejected() {
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class, () -> {
+            ticketService.purchaseTickets(1L, TicketOrder.of(1, 0, 0) | 1L << 60);
+        });
+
+        assertEquals("Invalid ticket order", exception.getMessage());
+    }
+
+    private TicketServiceImpl.Builder builder() {
+        return TicketServiceImpl.builder(paymentService, reservationService)
+                .ticketIdGenerator(new TicketIdGenerator(1));
+    }
+
+    private TicketServiceImpl dynamicPricingService(DynamicPricing pricing) {
+        return builder().dynamicPricing(pricing).build();
+    }
 }
@@ -0,0 +1,80 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long BASE_RTT = 10_000_000L;
+
+    private static void samples(AdaptiveConcurrencyLimit limit, int count, long rttNanos, int inFlight) {
+        for (int i = 0; i < count; i++) {
+            limit.onSample(rttNanos, inFlight);
+        }
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyStaysAtBaseline() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 1_000);
+
+        samples(limit, 1_000, BASE_RTT, 20);
+
+        assertTrue(limit.getLimit() > 20, "Limit should grow but was " + limit.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 1, 1_000);
+        samples(limit, 100, BASE_RTT, 100);
+        int before = limit.getLimit();
+
+        samples(limit, 1_000, BASE_RTT * 4, 100);
+
+        assertTrue(limit.getLimit() < before, "Limit should shrink but was " + limit.getLimit());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenMostlyUnused() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 1, 1_000);
+
+        samples(limit, 1_000, BASE_RTT, 10);
+
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    void testDroppedRequestBacksOffOncePerWindow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 1, 1_000);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onDropped();
+        }
+
+        assertEquals(90, limit.getLimit());
+    }
+
+    @Test
+    void testLimitStaysWithinBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 12);
+
+        samples(limit, 10_000, BASE_RTT, 12);
+        assertEquals(12, limit.getLimit());
+
+        for (int i = 0; i < 10_000; i++) {
+            limit.onDropped();
+        }
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void testInvalidSettingsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(20, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(5, 1, 10, 0.5, 0.2, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(5, 1, 10, 1.5, 0.0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(5, 1, 10, 1.5, 0.2, 0));
+    }
+}
@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import uk.gov.dwp.uc.pairtest.PurchaseRequest;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.AdmissionRejectedException;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+class AdmissionControlledTicketServiceTest {
+
+    private TicketServiceImpl delegate;
+    private AdmissionController controller;
+    private AdmissionControlledTicketService ticketService;
+    private final TicketTypeRequest adultRequest = new TicketTypeRequest(TicketType.ADULT, 1);
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(TicketServiceImpl.class);
+        controller = new AdmissionController(new AdaptiveConcurrencyLimit(1, 1, 10));
+        ticketService = new AdmissionControlledTicketService(delegate, controller);
+    }
+
+    @Test
+    void testAdmittedPurchaseIsDelegatedAndReleasesSlot() {
+        ticketService.purchaseTickets(1L, adultRequest);
+
+        verify(delegate).purchaseTickets(1L, adultRequest);
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    void testPurchaseOverLimitIsRejectedWithoutReachingDelegate() {
+        controller.acquire();
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> ticketService.purchaseTickets(1L, adultRequest));
+
+        assertEquals(AdmissionRejectedException.Reason.LIMIT_EXCEEDED, exception.getReason());
+        verify(delegate, never()).purchaseTickets(Mockito.anyLong(), Mockito.any(TicketTypeRequest[].class));
+    }
+
+    @Test
+    void testPackedOrderAndPurchaseRequestGoThroughAdmission() {
+        long order = TicketOrder.of(1, 0, 0);
+        PurchaseRequest request = PurchaseRequest.of(1L, adultRequest).withPromoCode("HALF");
+        controller.acquire();
+
+        assertThrows(AdmissionRejectedException.class, () -> ticketService.purchaseTickets(1L, order));
+        assertThrows(AdmissionRejectedException.class, () -> ticketService.purchaseTickets(request));
+        verify(delegate, never()).purchaseTickets(Mockito.anyLong(), Mockito.anyLong());
+        verify(delegate, never()).purchaseTickets(Mockito.any(PurchaseRequest.class));
+
+        controller.onIgnored();
+        ticketService.purchaseTickets(1L, order);
+        ticketService.purchaseTickets(request);
+
+        verify(delegate).purchaseTickets(1L, order);
+        verify(delegate).purchaseTickets(request);
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    void testInvalidPurchaseReleasesSlotAndIsRethrown() {
+        doThrow(new InvalidPurchaseException("Invalid account ID")).when(delegate).purchaseTickets(0L, adultRequest);
+
+        assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets(0L, adultRequest));
+
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    void testDownstreamFailureReleasesSlotAndIsRethrown() {
+        doThrow(new IllegalStateException("Gateway timeout")).when(delegate).purchaseTickets(1L, adultRequest);
+
+        assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets(1L, adultRequest));
+
+        assertEquals(0, controller.getInFlight());
+    }
+}
@@ -0,0 +1,136 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.exception.AdmissionRejectedException;
+
+class AdmissionControllerTest {
+
+    @Test
+    void testRequestsOverLimitAreShed() {
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(2, 1, 10));
+
+        controller.acquire();
+        controller.acquire();
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class, controller::acquire);
+
+        assertEquals(AdmissionRejectedException.Reason.LIMIT_EXCEEDED, exception.getReason());
+        assertEquals(2, controller.getInFlight());
+    }
+
+    @Test
+    void testCompletingRequestFreesSlot() {
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(1, 1, 10));
+
+        assertTrue(controller.tryAcquire());
+        assertFalse(controller.tryAcquire());
+        controller.onIgnored();
+
+        assertTrue(controller.tryAcquire());
+    }
+
+    @Test
+    void testQueuedRequestIsAdmittedWhenSlotFrees() throws Exception {
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(1, 1, 10), 1,
+                Duration.ofSeconds(10));
+        controller.acquire();
+
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(controller::acquire);
+        Thread.sleep(50);
+        assertFalse(queued.isDone());
+        controller.onSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    void testAllQueuedRequestsAreWokenWhenLimitIncreases() throws Exception {
+        // Constant latency and full smoothing: the limit goes from 1 to 2 after ten samples
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10, 2.0, 1.0, 100_000);
+        AdmissionController controller = new AdmissionController(limit, 2, Duration.ofSeconds(10));
+        long rttNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 0; i < 9; i++) {
+            controller.acquire();
+            controller.onSuccess(rttNanos);
+        }
+        controller.acquire();
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(controller::acquire);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(controller::acquire);
+        Thread.sleep(50);
+        assertFalse(first.isDone() || second.isDone());
+        controller.onSuccess(rttNanos);
+
+        // One slot was released but the limit rose by one, so both are admitted in turn
+        assertEquals(2, controller.getLimit());
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertEquals(2, controller.getInFlight());
+    }
+
+    @Test
+    void testNewRequestDoesNotOvertakeQueuedRequest() throws Exception {
+        AtomicReference<AdmissionController> controllerRef = new AtomicReference<>();
+        AtomicReference<AdmissionRejectedException> newcomerRejection = new AtomicReference<>();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10) {
+            @Override
+            public synchronized void onSample(long rttNanos, int inFlight) {
+                super.onSample(rttNanos, inFlight);
+                // A new request arrives after the slot is freed but before the queued request is woken
+                try {
+                    controllerRef.get().acquire();
+                } catch (AdmissionRejectedException e) {
+                    newcomerRejection.set(e);
+                }
+            }
+        };
+        AdmissionController controller = new AdmissionController(limit, 1, Duration.ofSeconds(10));
+        controllerRef.set(controller);
+        controller.acquire();
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(controller::acquire);
+        Thread.sleep(50);
+
+        controller.onSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+
+        // The freed slot belongs to the queued request, and the queue is full
+        assertEquals(AdmissionRejectedException.Reason.QUEUE_FULL, newcomerRejection.get().getReason());
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    void testQueuedRequestTimesOut() {
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(1, 1, 10), 1,
+                Duration.ofMillis(20));
+        controller.acquire();
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class, controller::acquire);
+
+        assertEquals(AdmissionRejectedException.Reason.QUEUE_TIMEOUT, exception.getReason());
+    }
+
+    @Test
+    void testFullQueueRejectsImmediately() throws Exception {
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(1, 1, 10), 1,
+                Duration.ofSeconds(10));
+        controller.acquire();
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(controller::acquire);
+        Thread.sleep(50);
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class, controller::acquire);
+
+        assertEquals(AdmissionRejectedException.Reason.QUEUE_FULL, exception.getReason());
+        controller.onIgnored();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Discrete-time simulation of a premiere flash sale against a fake payment
+ * gateway whose latency rises with the number of concurrent payments.
+ *
+ * The gateway handles GATEWAY_CAPACITY payments in BASE_LATENCY; beyond that,
+ * every extra payment adds queueing delay. Clients give up after TIMEOUT, so a
+ * payment that takes longer is wasted work. Goodput is the number of payments
+ * per second that completed within the timeout.
+ */
+class FlashSaleSimulationTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int GATEWAY_CAPACITY = 50;
+    private static final long BASE_LATENCY = 10 * MILLI;
+    private static final long TIMEOUT = 100 * MILLI;
+    // The most payments per second the gateway can complete within the timeout
+    private static final int PEAK_GOODPUT = (int) (GATEWAY_CAPACITY * TimeUnit.SECONDS.toNanos(1) / BASE_LATENCY);
+
+    private static final int SECONDS = 8;
+    private static final int FLASH_START_MILLIS = 1_000;
+    private static final int NORMAL_ARRIVALS_PER_MILLI = 2;
+    private static final int FLASH_ARRIVALS_PER_MILLI = 200;
+
+    @Test
+    void testGoodputStaysNearPeakDuringFlashSaleWithAdmissionControl() {
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimit(20, 1, 1_000));
+
+        int[] goodput = simulate(controller);
+
+        // Allow the first second of the flash sale for the limit to settle
+        int[] flash = Arrays.copyOfRange(goodput, 2, SECONDS);
+        int min = Arrays.stream(flash).min().getAsInt();
+        int max = Arrays.stream(flash).max().getAsInt();
+        assertTrue(min >= PEAK_GOODPUT * 0.8, "Goodput fell to " + min + "/s: " + Arrays.toString(goodput));
+        assertTrue(max - min <= PEAK_GOODPUT * 0.1, "Goodput was unstable: " + Arrays.toString(goodput));
+        assertTrue(controller.getLimit() < 2 * GATEWAY_CAPACITY,
+                "Limit should settle close to the gateway capacity but was " + controller.getLimit());
+    }
+
+    @Test
+    void testGoodputCollapsesDuringFlashSaleWithoutAdmissionControl() {
+        int[] goodput = simulate(null);
+
+        assertTrue(goodput[0] >= NORMAL_ARRIVALS_PER_MILLI * 1_000 * 0.95, "Normal load should be served");
+        for (int second = 2; second < SECONDS; second++) {
+            assertTrue(goodput[second] < PEAK_GOODPUT * 0.1,
+                    "Expected goodput to collapse: " + Arrays.toString(goodput));
+        }
+    }
+
+    /**
+     * @param controller admission controller, or null to admit everything
+     * @return payments completed within the timeout in each simulated second
+     */
+    private static int[] simulate(AdmissionController controller) {
+        int[] goodput = new int[SECONDS];
+        // {completion time, latency}
+        PriorityQueue<long[]> payments = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        int gatewayInFlight = 0;
+
+        for (int millis = 0; millis < SECONDS * 1_000; millis++) {
+            long now = millis * MILLI;
+
+            while (!payments.isEmpty() && payments.peek()[0] <= now) {
+                long latency = payments.poll()[1];
+                gatewayInFlight--;
+                if (latency <= TIMEOUT) {
+                    goodput[millis / 1_000]++;
+                    if (controller != null) {
+                        controller.onSuccess(latency);
+                    }
+                } else if (controller != null) {
+                    controller.onDropped();
+                }
+            }
+
+            int arrivals = millis < FLASH_START_MILLIS ? NORMAL_ARRIVALS_PER_MILLI : FLASH_ARRIVALS_PER_MILLI;
+            for (int i = 0; i < arrivals; i++) {
+                if (controller != null && !controller.tryAcquire()) {
+                    continue;
+                }
+                gatewayInFlight++;
+                long latency = gatewayLatency(gatewayInFlight);
+                payments.add(new long[] {now + latency, latency});
+            }
+        }
+        return goodput;
+    }
+
+    private static long gatewayLatency(int inFlight) {
+        return (long) (BASE_LATENCY * Math.max(1.0, (double) inFlight / GATEWAY_CAPACITY));
+    }
+}
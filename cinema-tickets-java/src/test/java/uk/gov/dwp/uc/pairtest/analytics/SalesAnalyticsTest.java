@@ -0,0 +1,172 @@
+package uk.gov.dwp.uc.pairtest.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
+
+class SalesAnalyticsTest {
+
+    private static final Instant START = Instant.parse("2026-10-19T12:00:00Z");
+
+    private MutableClock clock;
+    private SalesAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        analytics = new SalesAnalytics(clock);
+    }
+
+    @Test
+    void testSalesAreAggregatedPerTicketType() {
+        analytics.record(TicketType.ADULT, 2, 50);
+        analytics.record(TicketType.CHILD, 1, 15);
+        analytics.record(TicketType.ADULT, 1, 25);
+        analytics.record(TicketType.INFANT, 1, 0);
+
+        SalesTotals totals = analytics.queryLast(Duration.ofMinutes(1));
+
+        assertEquals(3, totals.getTickets(TicketType.ADULT));
+        assertEquals(75, totals.getAmount(TicketType.ADULT));
+        assertEquals(1, totals.getTickets(TicketType.CHILD));
+        assertEquals(15, totals.getAmount(TicketType.CHILD));
+        assertEquals(1, totals.getTickets(TicketType.INFANT));
+        assertEquals(5, totals.getTotalTickets());
+        assertEquals(90, totals.getTotalAmount());
+    }
+
+    @Test
+    void testRangeQuerySelectsWholeMinutes() {
+        analytics.record(TicketType.ADULT, 1, 25);
+        clock.advance(Duration.ofMinutes(1));
+        analytics.record(TicketType.ADULT, 2, 50);
+        clock.advance(Duration.ofMinutes(1));
+        analytics.record(TicketType.ADULT, 4, 100);
+
+        assertEquals(7, analytics.query(START, START.plus(Duration.ofMinutes(3))).getTickets(TicketType.ADULT));
+        assertEquals(2, analytics.query(START.plus(Duration.ofMinutes(1)), START.plus(Duration.ofMinutes(2)))
+                .getTickets(TicketType.ADULT));
+        assertEquals(6, analytics.queryLast(Duration.ofMinutes(1)).getTickets(TicketType.ADULT));
+    }
+
+    @Test
+    void testPerMinuteReturnsOnlyMinutesWithSales() {
+        analytics.record(TicketType.ADULT, 1, 25);
+        clock.advance(Duration.ofMinutes(5));
+        analytics.record(TicketType.CHILD, 2, 30);
+
+        List<MinuteSales> minutes = analytics.perMinute(START, START.plus(Duration.ofHours(1)));
+
+        assertEquals(2, minutes.size());
+        assertEquals(START, minutes.get(0).getMinute());
+        assertEquals(1, minutes.get(0).getTotals().getTickets(TicketType.ADULT));
+        assertEquals(START.plus(Duration.ofMinutes(5)), minutes.get(1).getMinute());
+        assertEquals(30, minutes.get(1).getTotals().getAmount(TicketType.CHILD));
+    }
+
+    @Test
+    void testSalesOlderThanRetentionAreDropped() {
+        analytics.record(TicketType.ADULT, 1, 25);
+        clock.advance(Duration.ofHours(24));
+        analytics.record(TicketType.ADULT, 3, 75);
+
+        SalesTotals totals = analytics.query(START.minus(Duration.ofDays(1)), START.plus(Duration.ofDays(2)));
+
+        // The new minute reuses the old minute's bucket, which must be cleared first
+        assertEquals(3, totals.getTickets(TicketType.ADULT));
+        assertEquals(75, totals.getAmount(TicketType.ADULT));
+    }
+
+    @Test
+    void testExportCsv() {
+        analytics.record(TicketType.ADULT, 2, 50);
+        analytics.record(TicketType.INFANT, 1, 0);
+        StringWriter writer = new StringWriter();
+
+        analytics.exportCsv(START, START.plus(Duration.ofMinutes(1)), writer);
+
+        long minute = START.toEpochMilli() / 60_000;
+        assertEquals("minute,infant_tickets,infant_amount,child_tickets,child_amount,adult_tickets,adult_amount\n"
+                + minute + ",1,0,0,0,2,50\n", writer.toString());
+    }
+
+    @Test
+    void testConcurrentRecordingIsNotLost() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 80_000; i++) {
+            executor.execute(() -> analytics.record(TicketType.ADULT, 1, 25));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        SalesTotals totals = analytics.queryLast(Duration.ofMinutes(1));
+
+        assertEquals(80_000, totals.getTickets(TicketType.ADULT));
+        assertEquals(2_000_000, totals.getAmount(TicketType.ADULT));
+    }
+
+    @Test
+    void testFedFromSuccessfulPurchases() {
+        TicketServiceImpl ticketService = TicketServiceImpl.builder(Mockito.mock(TicketPaymentService.class),
+                Mockito.mock(SeatReservationService.class)).purchaseListener(analytics)
+                .ticketIdGenerator(new TicketIdGenerator(1)).build();
+
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 2),
+                new TicketTypeRequest(TicketType.CHILD, 1));
+
+        SalesTotals totals = analytics.queryLast(Duration.ofMinutes(1));
+        assertEquals(2, totals.getTickets(TicketType.ADULT));
+        assertEquals(50, totals.getAmount(TicketType.ADULT));
+        assertEquals(1, totals.getTickets(TicketType.CHILD));
+        assertEquals(15, totals.getAmount(TicketType.CHILD));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
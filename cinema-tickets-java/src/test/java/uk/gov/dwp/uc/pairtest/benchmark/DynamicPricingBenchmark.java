@@ -0,0 +1,103 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.pricing.DynamicPricing;
+import uk.gov.dwp.uc.pairtest.pricing.PriceCurve;
+import uk.gov.dwp.uc.pairtest.pricing.PriceQuote;
+
+/**
+ * Cost of occupancy-driven prices on the purchase path against the static
+ * TicketType prices. Each screening sits just below a price step, so quotes
+ * read a live counter, and a charged order is released straight away to keep
+ * the occupancy steady.
+ *
+ * The threaded benchmarks give each thread its own screening, which is the
+ * case the padded counters are for; {@code quoteChargeReleaseSharedScreening}
+ * shows the contended case for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicPricingBenchmark {
+
+    private static final int SCREENINGS = 16;
+    private static final int CAPACITY = 1_000;
+
+    private DynamicPricing pricing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pricing = new DynamicPricing(SCREENINGS,
+                new PriceCurve(CAPACITY, new int[] { 50, 70, 90 }, new int[] { 10, 25, 50 }));
+        for (int screening = 0; screening < SCREENINGS; screening++) {
+            pricing.charge(pricing.quote(screening, 600, 0));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Order {
+        private static final AtomicInteger NEXT_SCREENING = new AtomicInteger();
+
+        int screening;
+        int adults = 3;
+        int children = 2;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            screening = NEXT_SCREENING.getAndIncrement() % SCREENINGS;
+        }
+    }
+
+    @Benchmark
+    public int staticPrices(Order order) {
+        return order.adults * TicketType.ADULT.getPrice() + order.children * TicketType.CHILD.getPrice();
+    }
+
+    @Benchmark
+    public int quote(Order order) {
+        return pricing.quote(order.screening, order.adults, order.children).getTotal();
+    }
+
+    @Benchmark
+    public int quoteChargeRelease(Order order) {
+        return quoteChargeRelease(order.screening, order);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int quoteChargeReleaseOwnScreening(Order order) {
+        return quoteChargeRelease(order.screening, order);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int quoteChargeReleaseSharedScreening(Order order) {
+        return quoteChargeRelease(0, order);
+    }
+
+    private int quoteChargeRelease(int screening, Order order) {
+        PriceQuote quote = pricing.quote(screening, order.adults, order.children);
+        pricing.charge(quote);
+        pricing.release(quote);
+        return quote.getTotal();
+    }
+}
@@ -0,0 +1,140 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Queues half a million orders in memory, then drains the queue validating
+ * and pricing each order with the same TicketOrder code TicketServiceImpl
+ * runs for every purchase (requests are packed first, as the service packs
+ * them). Orders are held as
+ * arrays of new TicketTypeRequests, as arrays of shared requests from
+ * TicketTypeRequest.of, and as packed TicketOrder longs.
+ *
+ * One operation is the whole batch. Run with -prof gc to compare allocation.
+ * newRequest and sharedRequest time a single request instead; sharedRequest
+ * should not allocate (gc.alloc.rate.norm close to 0 B/op).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class OrderQueueBenchmark {
+
+    private static final int ORDERS = 500_000;
+
+    private int[] adults;
+    private int[] children;
+    private int[] infants;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        adults = new int[ORDERS];
+        children = new int[ORDERS];
+        infants = new int[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            adults[i] = random.nextInt(1, 9);
+            children[i] = random.nextInt(0, 9);
+            infants[i] = random.nextInt(0, adults[i] + 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next = (next + 1) % ORDERS;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public TicketTypeRequest newRequest(Cursor cursor) {
+        return new TicketTypeRequest(TicketType.CHILD, children[cursor.advance()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public TicketTypeRequest sharedRequest(Cursor cursor) {
+        return TicketTypeRequest.of(TicketType.CHILD, children[cursor.advance()]);
+    }
+
+    @Benchmark
+    public long newRequests() {
+        ArrayDeque<TicketTypeRequest[]> queue = new ArrayDeque<>();
+        for (int i = 0; i < ORDERS; i++) {
+            queue.add(new TicketTypeRequest[] {
+                    new TicketTypeRequest(TicketType.ADULT, adults[i]),
+                    new TicketTypeRequest(TicketType.CHILD, children[i]),
+                    new TicketTypeRequest(TicketType.INFANT, infants[i]) });
+        }
+        return drainRequests(queue);
+    }
+
+    @Benchmark
+    public long sharedRequests() {
+        ArrayDeque<TicketTypeRequest[]> queue = new ArrayDeque<>();
+        for (int i = 0; i < ORDERS; i++) {
+            queue.add(new TicketTypeRequest[] {
+                    TicketTypeRequest.of(TicketType.ADULT, adults[i]),
+                    TicketTypeRequest.of(TicketType.CHILD, children[i]),
+                    TicketTypeRequest.of(TicketType.INFANT, infants[i]) });
+        }
+        return drainRequests(queue);
+    }
+
+    @Benchmark
+    public long packedOrders() {
+        long[] queue = new long[ORDERS];
+        int tail = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            queue[tail++] = TicketOrder.of(adults[i], children[i], infants[i]);
+        }
+        long revenue = 0;
+        for (int head = 0; head < tail; head++) {
+            revenue += price(queue[head]);
+        }
+        return revenue;
+    }
+
+    private static long drainRequests(ArrayDeque<TicketTypeRequest[]> queue) {
+        long revenue = 0;
+        TicketTypeRequest[] requests;
+        while ((requests = queue.poll()) != null) {
+            revenue += price(TicketOrder.of(requests));
+        }
+        return revenue;
+    }
+
+    // The validation and totals of TicketServiceImpl; an invalid order earns nothing
+    private static int price(long order) {
+        try {
+            TicketOrder.validate(order);
+        } catch (InvalidPurchaseException e) {
+            return 0;
+        }
+        return TicketOrder.getTotalAmount(order);
+    }
+}
@@ -0,0 +1,131 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.dwp.uc.pairtest.discount.DiscountEngine;
+import uk.gov.dwp.uc.pairtest.discount.GroupDiscount;
+import uk.gov.dwp.uc.pairtest.discount.Promo;
+import uk.gov.dwp.uc.pairtest.discount.PromoCodeIndex;
+
+/**
+ * Promo code lookup in a PromoCodeIndex against a HashMap&lt;String, Promo&gt;,
+ * with a million active codes. Queries are separate String instances from
+ * the stored keys, as they would be when read from a request, and are spread
+ * over the whole code set so most lookups miss the CPU caches.
+ *
+ * Run with -prof gc to compare allocation; heap use of the two structures is
+ * printed at setup. Index lookups and applyStackedDiscounts should not
+ * allocate (gc.alloc.rate.norm close to 0 B/op).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PromoLookupBenchmark {
+
+    private static final int CODES = 1_000_000;
+    private static final int QUERIES = 1 << 16;
+
+    private PromoCodeIndex index;
+    private Map<String, Promo> hashMap;
+    private DiscountEngine engine;
+    private String[] hits;
+    private String[] misses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Promo> promos = new ArrayList<>(CODES);
+        for (int i = 0; i < CODES; i++) {
+            promos.add(new Promo(code(i), random.nextInt(51), random.nextInt(6)));
+        }
+
+        long before = usedHeap();
+        index = PromoCodeIndex.build(promos);
+        long indexBytes = usedHeap() - before;
+
+        before = usedHeap();
+        hashMap = new HashMap<>();
+        for (Promo promo : promos) {
+            // Own copies of the strings and promos, as a map loaded from a feed would hold
+            Promo copy = new Promo(new String(promo.getCode()), promo.getPercentOff(), promo.getAmountOff());
+            hashMap.put(copy.getCode(), copy);
+        }
+        long hashMapBytes = usedHeap() - before;
+        System.out.printf("%nHeap: PromoCodeIndex ~%d MB, HashMap ~%d MB%n", indexBytes >> 20, hashMapBytes >> 20);
+
+        engine = new DiscountEngine(promos, List.of(new GroupDiscount(10, 10)));
+        hits = new String[QUERIES];
+        misses = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            hits[i] = new String(code(random.nextInt(CODES)));
+            misses[i] = code(CODES + random.nextInt(CODES));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next = (next + 1) & (QUERIES - 1);
+        }
+    }
+
+    @Benchmark
+    public int indexHit(Cursor cursor) {
+        int slot = index.indexOf(hits[cursor.advance()]);
+        return index.getPercentOff(slot);
+    }
+
+    @Benchmark
+    public int hashMapHit(Cursor cursor) {
+        return hashMap.get(hits[cursor.advance()]).getPercentOff();
+    }
+
+    @Benchmark
+    public int indexMiss(Cursor cursor) {
+        return index.indexOf(misses[cursor.advance()]);
+    }
+
+    @Benchmark
+    public Promo hashMapMiss(Cursor cursor) {
+        return hashMap.get(misses[cursor.advance()]);
+    }
+
+    @Benchmark
+    public int applyStackedDiscounts(Cursor cursor) {
+        return engine.apply(12, 300, hits[cursor.advance()]);
+    }
+
+    private static String code(int i) {
+        return "PROMO-" + Integer.toString(i, 36).toUpperCase();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,77 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.dwp.uc.pairtest.ticket.TicketBarcode;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
+
+/**
+ * Cost of issuing the ticket IDs (and barcodes) for a maximum size order of
+ * 25 tickets, against generating 25 random UUIDs.
+ *
+ * Run with -prof gc to see the allocation rate per order. Issuing IDs and
+ * encoding barcodes into reused buffers should not allocate at all
+ * (gc.alloc.rate.norm close to 0 B/op).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketIdBenchmark {
+
+    private static final int ORDER_SIZE = 25;
+
+    @State(Scope.Benchmark)
+    public static class SharedGenerator {
+        final TicketIdGenerator generator = new TicketIdGenerator(1);
+    }
+
+    @State(Scope.Thread)
+    public static class Buffers {
+        final long[] ticketIds = new long[ORDER_SIZE];
+        final char[] barcodes = new char[ORDER_SIZE * TicketBarcode.LENGTH];
+    }
+
+    @Benchmark
+    public long[] issueIds(SharedGenerator shared, Buffers buffers) {
+        shared.generator.nextIds(buffers.ticketIds, 0, ORDER_SIZE);
+        return buffers.ticketIds;
+    }
+
+    @Benchmark
+    public char[] issueIdsAndBarcodes(SharedGenerator shared, Buffers buffers) {
+        shared.generator.nextIds(buffers.ticketIds, 0, ORDER_SIZE);
+        for (int i = 0; i < ORDER_SIZE; i++) {
+            TicketBarcode.encode(buffers.ticketIds[i], buffers.barcodes, i * TicketBarcode.LENGTH);
+        }
+        return buffers.barcodes;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long[] issueIdsContended(SharedGenerator shared, Buffers buffers) {
+        shared.generator.nextIds(buffers.ticketIds, 0, ORDER_SIZE);
+        return buffers.ticketIds;
+    }
+
+    @Benchmark
+    public void randomUuids(Blackhole blackhole) {
+        for (int i = 0; i < ORDER_SIZE; i++) {
+            blackhole.consume(UUID.randomUUID());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+class DiscountEngineTest {
+
+    private final DiscountEngine engine = new DiscountEngine(
+            List.of(new Promo("HALF", 50, 0), new Promo("FIVER", 0, 5), new Promo("COMBO", 10, 3)),
+            List.of(new GroupDiscount(10, 10), new GroupDiscount(20, 20)));
+
+    @Test
+    void testNoDiscountBelowGroupSizeWithoutCode() {
+        assertEquals(225, engine.apply(9, 225, null));
+        assertEquals(225, engine.apply(9, 225, ""));
+    }
+
+    @Test
+    void testLargestQualifyingGroupRateApplies() {
+        assertEquals(225, engine.apply(10, 250, null));
+        assertEquals(400, engine.apply(20, 500, null));
+        assertEquals(500, engine.apply(25, 625, null));
+    }
+
+    @Test
+    void testPromoPercentageAndAmountStackAfterGroupRate() {
+        // 250 less 10% group rate = 225, less 10% = 202 (rounded down), less 3 = 199
+        assertEquals(199, engine.apply(10, 250, "COMBO"));
+        // 75 less 50% = 37 (rounded down)
+        assertEquals(37, engine.apply(3, 75, "half"));
+    }
+
+    @Test
+    void testTotalNeverGoesNegative() {
+        assertEquals(0, engine.apply(1, 0, "FIVER"));
+        assertEquals(0, engine.apply(1, 4, "FIVER"));
+    }
+
+    @Test
+    void testUnknownCodeThrowsException() {
+        Exception exception = assertThrows(InvalidPurchaseException.class, () -> engine.apply(1, 25, "NOPE"));
+        assertEquals("Invalid promo code", exception.getMessage());
+    }
+
+    @Test
+    void testReloadReplacesRules() {
+        engine.reload(List.of(new Promo("NEW", 20, 0)), List.of());
+
+        assertFalse(engine.isActive("HALF"));
+        assertTrue(engine.isActive("new"));
+        assertEquals(1, engine.getPromoCount());
+        assertEquals(250, engine.apply(10, 250, null));
+        assertEquals(20, engine.apply(1, 25, "NEW"));
+    }
+
+    @Test
+    void testDuplicateGroupDiscountThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> new DiscountEngine(List.of(), List.of(new GroupDiscount(10, 5), new GroupDiscount(10, 10))));
+        assertEquals("Duplicate group discount for 10 tickets", exception.getMessage());
+    }
+
+    @Test
+    void testReadersNeverSeeAMixOfOldAndNewRules() throws InterruptedException {
+        // Both sets keep SHARED; the percentage of the group rate and of the code change together
+        List<Promo> setA = new ArrayList<>(PromoCodeIndexTest.promos(10_000));
+        setA.add(new Promo("SHARED", 10, 0));
+        List<GroupDiscount> groupsA = List.of(new GroupDiscount(10, 10));
+        List<Promo> setB = new ArrayList<>(PromoCodeIndexTest.promos(5_000));
+        setB.add(new Promo("SHARED", 20, 0));
+        List<GroupDiscount> groupsB = List.of(new GroupDiscount(10, 20));
+        DiscountEngine reloading = new DiscountEngine(setA, groupsA);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                int amount = reloading.apply(10, 1_000, "SHARED");
+                // A: 1000 -> 900 -> 810, B: 1000 -> 800 -> 640
+                if (amount != 810 && amount != 640) {
+                    failure.set("Mixed rules gave " + amount);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 50; i++) {
+            reloading.reload(i % 2 == 0 ? setB : setA, i % 2 == 0 ? groupsB : groupsA);
+        }
+        stop.set(true);
+        reader.join();
+
+        assertEquals(null, failure.get());
+    }
+
+    @Test
+    void testApplyDoesNotAllocate() {
+        DiscountEngine large = new DiscountEngine(PromoCodeIndexTest.promos(100_000),
+                List.of(new GroupDiscount(10, 10)));
+        String[] codes = new String[1_000];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = PromoCodeIndexTest.code(i * 97);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long total = 0;
+        for (int i = 0; i < 50_000; i++) {
+            total += large.apply(12, 300, codes[i % codes.length]);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            total += large.apply(12, 300, codes[i % codes.length]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(total > 0);
+        assertTrue(allocated < 1_024, "Allocated " + allocated + " bytes applying 100,000 discounts");
+    }
+}
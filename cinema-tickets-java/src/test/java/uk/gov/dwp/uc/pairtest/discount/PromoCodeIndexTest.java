@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.discount;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class PromoCodeIndexTest {
+
+    @Test
+    void testEveryCodeIsFoundWithItsDiscount() {
+        List<Promo> promos = promos(100_000);
+
+        PromoCodeIndex index = PromoCodeIndex.build(promos);
+
+        assertEquals(100_000, index.size());
+        Set<Integer> slots = new HashSet<>();
+        for (Promo promo : promos) {
+            int slot = index.indexOf(promo.getCode());
+            assertTrue(slot >= 0, promo.getCode());
+            assertEquals(promo.getPercentOff(), index.getPercentOff(slot));
+            assertEquals(promo.getAmountOff(), index.getAmountOff(slot));
+            slots.add(slot);
+        }
+        assertEquals(100_000, slots.size());
+    }
+
+    @Test
+    void testUnknownCodesAreNotFound() {
+        PromoCodeIndex index = PromoCodeIndex.build(promos(10_000));
+
+        for (int i = 10_000; i < 20_000; i++) {
+            assertEquals(-1, index.indexOf(code(i)));
+        }
+        assertEquals(-1, index.indexOf("PROMO-ZZZZ"));
+        assertEquals(-1, index.indexOf(""));
+        assertEquals(-1, index.indexOf(null));
+    }
+
+    @Test
+    void testLookupIgnoresCase() {
+        PromoCodeIndex index = PromoCodeIndex.build(List.of(new Promo("Summer-24", 10, 0)));
+
+        int slot = index.indexOf("SUMMER-24");
+        assertNotEquals(-1, slot);
+        assertEquals(slot, index.indexOf("summer-24"));
+        assertEquals(slot, index.indexOf(new StringBuilder("sUmMeR-24")));
+    }
+
+    @Test
+    void testEmptyIndexFindsNothing() {
+        assertEquals(0, PromoCodeIndex.EMPTY.size());
+        assertEquals(-1, PromoCodeIndex.EMPTY.indexOf("ANY"));
+    }
+
+    @Test
+    void testDuplicateCodeThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> PromoCodeIndex.build(List.of(new Promo("TWICE", 10, 0), new Promo("twice", 5, 0))));
+        assertEquals("Duplicate promo code TWICE", exception.getMessage());
+    }
+
+    @Test
+    void testInvalidPromoThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> new Promo("NO SPACES", 10, 0));
+        assertEquals("Promo code must be 1 to 32 letters, digits or hyphens", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new Promo("", 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Promo("CODE", 101, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Promo("CODE", 10, -1));
+    }
+
+    static List<Promo> promos(int count) {
+        List<Promo> promos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            promos.add(new Promo(code(i), i % 51, i % 7));
+        }
+        return promos;
+    }
+
+    static String code(int i) {
+        return "PROMO-" + Integer.toString(i, 36).toUpperCase();
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class PurchaseResultTest {
+
+    @Test
+    void testTicketTypesFollowAdultChildInfantOrder() {
+        PurchaseResult result = new PurchaseResult(1L, 1, 2, 1, 55, new long[] { 10, 11, 12, 13 });
+
+        assertEquals(TicketType.ADULT, result.getTicketType(0));
+        assertEquals(TicketType.CHILD, result.getTicketType(1));
+        assertEquals(TicketType.CHILD, result.getTicketType(2));
+        assertEquals(TicketType.INFANT, result.getTicketType(3));
+        assertEquals(2, result.getTicketCount(TicketType.CHILD));
+        assertEquals(3, result.getTotalSeats());
+        assertThrows(IndexOutOfBoundsException.class, () -> result.getTicketType(4));
+    }
+
+    @Test
+    void testTicketIdsAreCopied() {
+        long[] ticketIds = { 10, 11 };
+        PurchaseResult result = new PurchaseResult(1L, 2, 0, 0, 50, ticketIds);
+
+        ticketIds[0] = 99;
+        result.getTicketIds()[1] = 99;
+
+        assertArrayEquals(new long[] { 10, 11 }, result.getTicketIds());
+    }
+
+    @Test
+    void testWrapTakesOwnershipOfTicketIds() {
+        long[] ticketIds = { 10, 11 };
+        PurchaseResult result = PurchaseResult.wrap(1L, 2, 0, 0, 50, ticketIds);
+
+        ticketIds[0] = 99;
+
+        assertEquals(99, result.getTicketId(0));
+        assertThrows(IllegalArgumentException.class, () -> PurchaseResult.wrap(1L, 2, 0, 1, 50, ticketIds));
+    }
+
+    @Test
+    void testWrongNumberOfTicketIdsThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> new PurchaseResult(1L, 2, 0, 1, 50, new long[2]));
+        assertEquals("Exactly one ticket ID is required per ticket", exception.getMessage());
+    }
+}
@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+class TicketOrderTest {
+
+    @Test
+    void testCountsArePackedPerType() {
+        long order = TicketOrder.of(3, 2, 1);
+
+        assertEquals(3, TicketOrder.getAdultTickets(order));
+        assertEquals(2, TicketOrder.getChildTickets(order));
+        assertEquals(1, TicketOrder.getInfantTickets(order));
+        assertEquals(2, TicketOrder.getTickets(order, TicketType.CHILD));
+        assertEquals(0x0001_0002_0003L, order);
+        assertEquals("ADULT=3 CHILD=2 INFANT=1", TicketOrder.toString(order));
+    }
+
+    @Test
+    void testOfRequestsAddsRepeatedTypes() {
+        long order = TicketOrder.of(TicketTypeRequest.of(TicketType.ADULT, 2),
+                TicketTypeRequest.of(TicketType.INFANT, 1), TicketTypeRequest.of(TicketType.ADULT, 3));
+
+        assertEquals(TicketOrder.of(5, 0, 1), order);
+        assertEquals(TicketOrder.EMPTY, TicketOrder.of());
+    }
+
+    @Test
+    void testAddLeavesOtherTypesUnchanged() {
+        long order = TicketOrder.add(TicketOrder.of(1, 4, 1), TicketType.CHILD, 6);
+
+        assertEquals(TicketOrder.of(1, 10, 1), order);
+    }
+
+    @Test
+    void testCountsSaturateAtMaximum() {
+        long order = TicketOrder.of(Integer.MAX_VALUE, 1, 0);
+        order = TicketOrder.add(order, TicketType.ADULT, Integer.MAX_VALUE);
+
+        assertEquals(TicketOrder.MAX_COUNT, TicketOrder.getAdultTickets(order));
+        assertEquals(1, TicketOrder.getChildTickets(order));
+        assertTrue(TicketOrder.isValid(order));
+    }
+
+    @Test
+    void testNegativeCountThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> TicketOrder.of(1, -1, 0));
+
+        assertEquals("Number of tickets must not be negative", exception.getMessage());
+    }
+
+    @Test
+    void testReservedBitsMakeOrderInvalid() {
+        assertTrue(TicketOrder.isValid(TicketOrder.of(25, 25, 25)));
+        assertFalse(TicketOrder.isValid(-1L));
+        assertFalse(TicketOrder.isValid(1L << 48));
+    }
+
+    @Test
+    void testTotalsAtStandardPrices() {
+        long order = TicketOrder.of(2, 3, 1);
+
+        assertEquals(6, TicketOrder.getTotalTickets(order));
+        assertEquals(5, TicketOrder.getTotalSeats(order));
+        assertEquals(2 * 25 + 3 * 15, TicketOrder.getTotalAmount(order));
+    }
+
+    @Test
+    void testValidateAppliesPurchaseRules() throws InvalidPurchaseException {
+        TicketOrder.validate(TicketOrder.of(1, 23, 1));
+
+        assertEquals("At least one ticket must be purchased", rejection(TicketOrder.EMPTY));
+        assertEquals("Maximum of 25 tickets per purchase", rejection(TicketOrder.of(20, 6, 0)));
+        assertEquals("Child or Infant tickets cannot be purchased without an Adult ticket",
+                rejection(TicketOrder.of(0, 1, 0)));
+        assertEquals("Each infant must be accompanied by an adult", rejection(TicketOrder.of(1, 0, 2)));
+        assertEquals("Invalid ticket order", rejection(-1L));
+    }
+
+    private static String rejection(long order) {
+        return assertThrows(InvalidPurchaseException.class, () -> TicketOrder.validate(order)).getMessage();
+    }
+}
@@ -2,7 +2,12 @@ package uk.gov.dwp.uc.pairtest.domain;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -90,4 +95,53 @@ class TicketTypeRequestTest {
         assertEquals(2, request.getNoOfTickets());
         assertEquals(TicketType.ADULT, request.getTicketType());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testOfSharesInstancesForValidCounts() {
+        for (TicketType ticketType : TicketType.values()) {
+            for (int noOfTickets = 0; noOfTickets <= 25; noOfTickets++) {
+                TicketTypeRequest request = TicketTypeRequest.of(ticketType, noOfTickets);
+                assertSame(request, TicketTypeRequest.of(ticketType, noOfTickets));
+                assertEquals(ticketType, request.getTicketType());
+                assertEquals(noOfTickets, request.getNoOfTickets());
+            }
+        }
+    }
+
+    @Test
+    void testOfCreatesInstanceForLargerCounts() {
+        TicketTypeRequest request = TicketTypeRequest.of(TicketType.ADULT, 26);
+
+        assertEquals(26, request.getNoOfTickets());
+        assertNotSame(request, TicketTypeRequest.of(TicketType.ADULT, 26));
+    }
+
+    @Test
+    void testOfValidatesLikeConstructor() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> TicketTypeRequest.of(null, 1));
+        assertEquals("Ticket type cannot be null", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> TicketTypeRequest.of(TicketType.CHILD, -1));
+        assertEquals("Number of tickets must not be negative", exception.getMessage());
+    }
+
+    @Test
+    void testOfDoesNotAllocateForValidCounts() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        TicketType[] ticketTypes = TicketType.values();
+        long checksum = 0;
+        for (int i = 0; i < 20_000; i++) {
+            checksum += TicketTypeRequest.of(ticketTypes[i % 3], i % 26).getNoOfTickets();
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            checksum += TicketTypeRequest.of(ticketTypes[i % 3], i % 26).getNoOfTickets();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum > 0);
+        assertTrue(allocated < 1_024, "Allocated " + allocated + " bytes for 100,000 requests");
+    }
+}
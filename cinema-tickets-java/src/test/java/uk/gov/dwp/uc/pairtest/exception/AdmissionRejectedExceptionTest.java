@@ -0,0 +1,31 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class AdmissionRejectedExceptionTest {
+
+    @Test
+    void testConstructorWithMessageAndReason() {
+        AdmissionRejectedException exception = new AdmissionRejectedException("At capacity",
+                AdmissionRejectedException.Reason.LIMIT_EXCEEDED);
+
+        assertEquals("At capacity", exception.getMessage());
+        assertEquals(AdmissionRejectedException.Reason.LIMIT_EXCEEDED, exception.getReason());
+        assertNull(exception.getCause());
+    }
+
+    @Test
+    void testConstructorWithMessageReasonAndCause() {
+        Throwable cause = new InterruptedException();
+
+        AdmissionRejectedException exception = new AdmissionRejectedException("Interrupted",
+                AdmissionRejectedException.Reason.QUEUE_TIMEOUT, cause);
+
+        assertEquals("Interrupted", exception.getMessage());
+        assertEquals(AdmissionRejectedException.Reason.QUEUE_TIMEOUT, exception.getReason());
+        assertEquals(cause, exception.getCause());
+    }
+}
@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class PriceChangedExceptionTest {
+
+    @Test
+    void testConstructorWithMessage() {
+        PriceChangedException exception = new PriceChangedException("Price has changed");
+
+        assertEquals("Price has changed", exception.getMessage());
+        assertNull(exception.getCause());
+        assertInstanceOf(InvalidPurchaseException.class, exception);
+    }
+
+    @Test
+    void testConstructorWithMessageAndCause() {
+        Throwable cause = new IllegalStateException("Occupancy moved to the next step");
+
+        PriceChangedException exception = new PriceChangedException("Price has changed", cause);
+
+        assertEquals("Price has changed", exception.getMessage());
+        assertEquals(cause, exception.getCause());
+    }
+}
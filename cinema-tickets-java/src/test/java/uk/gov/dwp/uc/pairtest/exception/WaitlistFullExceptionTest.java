@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class WaitlistFullExceptionTest {
+
+    @Test
+    void testConstructorWithMessage() {
+        WaitlistFullException exception = new WaitlistFullException("Waitlist is full");
+
+        assertEquals("Waitlist is full", exception.getMessage());
+        assertNull(exception.getCause());
+    }
+
+    @Test
+    void testConstructorWithMessageAndCause() {
+        Throwable cause = new IllegalStateException("Queue at capacity");
+
+        WaitlistFullException exception = new WaitlistFullException("Waitlist is full", cause);
+
+        assertEquals("Waitlist is full", exception.getMessage());
+        assertEquals(cause, exception.getCause());
+    }
+}
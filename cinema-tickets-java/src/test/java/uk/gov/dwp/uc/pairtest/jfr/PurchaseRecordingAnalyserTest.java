@@ -0,0 +1,174 @@
+package uk.gov.dwp.uc.pairtest.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
+
+class PurchaseRecordingAnalyserTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TicketPaymentService paymentService;
+    private SeatReservationService reservationService;
+    private TicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        paymentService = Mockito.mock(TicketPaymentService.class);
+        reservationService = Mockito.mock(SeatReservationService.class);
+        ticketService = TicketServiceImpl.builder(paymentService, reservationService)
+                .ticketIdGenerator(new TicketIdGenerator(1)).build();
+    }
+
+    @Test
+    void testEveryPhaseOfASuccessfulPurchaseIsRecorded() throws Exception {
+        Path recording = record(purchaseProfile(), () -> {
+            for (int i = 0; i < 10; i++) {
+                ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 2),
+                        new TicketTypeRequest(TicketType.INFANT, 1));
+            }
+        });
+
+        PurchaseRecordingAnalyser.Report report = new PurchaseRecordingAnalyser(3).analyse(recording);
+
+        for (String phase : new String[] { PurchaseRecordingAnalyser.PURCHASE, PurchaseRecordingAnalyser.VALIDATION,
+                PurchaseRecordingAnalyser.TOTALS, PurchaseRecordingAnalyser.PAYMENT,
+                PurchaseRecordingAnalyser.RESERVATION }) {
+            assertEquals(10, report.getPhase(phase).getCount(), phase);
+        }
+        assertEquals(Map.of(PurchaseEvent.SUCCESS, 10L), report.getOutcomes());
+        assertTrue(report.getRejectionReasons().isEmpty());
+        assertEquals(3, report.getSlowest().size());
+    }
+
+    @Test
+    void testSlowPaymentIsAttributedToThePaymentPhase() throws Exception {
+        // Warm up outside the recording so class loading does not make the first purchase slowest
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 1));
+        doAnswer(invocation -> {
+            Thread.sleep(50);
+            return null;
+        }).when(paymentService).makePayment(7L, 25);
+
+        Path recording = record(purchaseProfile(), () -> {
+            ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 2));
+            ticketService.purchaseTickets(7L, new TicketTypeRequest(TicketType.ADULT, 1));
+            ticketService.purchaseTickets(2L, new TicketTypeRequest(TicketType.ADULT, 3));
+        });
+
+        PurchaseRecordingAnalyser.Report report = new PurchaseRecordingAnalyser(1).analyse(recording);
+
+        PurchaseRecordingAnalyser.SlowPurchase slowest = report.getSlowest().get(0);
+        assertEquals(7L, slowest.getAccountId());
+        assertTrue(slowest.getPhase(PurchaseRecordingAnalyser.PAYMENT).compareTo(Duration.ofMillis(50)) >= 0);
+        assertTrue(slowest.getPhase(PurchaseRecordingAnalyser.RESERVATION).compareTo(Duration.ofMillis(50)) < 0);
+        assertTrue(report.getPhase(PurchaseRecordingAnalyser.PAYMENT).getMax().compareTo(Duration.ofMillis(50)) >= 0);
+    }
+
+    @Test
+    void testRejectedPurchaseRecordsReasonAndStopsAfterValidation() throws Exception {
+        Path recording = record(purchaseProfile(), () -> assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.CHILD, 1))));
+
+        PurchaseRecordingAnalyser.Report report = new PurchaseRecordingAnalyser(1).analyse(recording);
+
+        assertEquals(Map.of(PurchaseEvent.REJECTED, 1L), report.getOutcomes());
+        assertEquals(Map.of("Child or Infant tickets cannot be purchased without an Adult ticket", 1L),
+                report.getRejectionReasons());
+        assertEquals(1, report.getPhase(PurchaseRecordingAnalyser.VALIDATION).getCount());
+        assertEquals(0, report.getPhase(PurchaseRecordingAnalyser.PAYMENT).getCount());
+        assertEquals(0, report.getPhase(PurchaseRecordingAnalyser.RESERVATION).getCount());
+    }
+
+    @Test
+    void testFailedPaymentIsRecordedAsFailure() throws Exception {
+        doThrow(new IllegalStateException("Gateway unavailable")).when(paymentService).makePayment(anyLong(),
+                anyInt());
+
+        Path recording = record(purchaseProfile(), () -> assertThrows(IllegalStateException.class,
+                () -> ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 1))));
+
+        PurchaseRecordingAnalyser.Report report = new PurchaseRecordingAnalyser(1).analyse(recording);
+
+        assertEquals(Map.of(PurchaseEvent.FAILED, 1L), report.getOutcomes());
+        assertEquals(1, report.getPhase(PurchaseRecordingAnalyser.PAYMENT).getCount());
+        assertEquals(0, report.getPhase(PurchaseRecordingAnalyser.RESERVATION).getCount());
+    }
+
+    @Test
+    void testEventsAreOffInTheDefaultProfile() throws Exception {
+        Path recording = record(Configuration.getConfiguration("default"),
+                () -> ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 1)));
+
+        assertFalse(RecordingFile.readAllEvents(recording).stream()
+                .anyMatch(event -> event.getEventType().getName().startsWith("uk.gov.dwp.uc.pairtest.")));
+    }
+
+    @Test
+    void testPrintShowsEachPhase() throws Exception {
+        Path recording = record(purchaseProfile(),
+                () -> ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketType.ADULT, 1)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new PurchaseRecordingAnalyser(1).analyse(recording).print(new PrintStream(output, true, "UTF-8"));
+
+        String printed = output.toString("UTF-8");
+        assertTrue(printed.contains("Purchases by outcome: {SUCCESS=1}"), printed);
+        for (String phase : new String[] { "purchase", "validation", "totals", "payment", "reservation" }) {
+            assertTrue(printed.contains("\n" + phase + " "), printed);
+        }
+        assertTrue(printed.contains("account 1 SUCCESS"), printed);
+    }
+
+    private static Configuration purchaseProfile() throws IOException, ParseException {
+        try (Reader reader = new InputStreamReader(
+                PurchaseRecordingAnalyserTest.class.getResourceAsStream("/jfr/purchase.jfc"),
+                StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+
+    private Path record(Configuration configuration, Runnable purchases) throws IOException {
+        Path file = tempDir.resolve("purchases.jfr");
+        try (Recording recording = new Recording(configuration)) {
+            recording.start();
+            purchases.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return file;
+    }
+}
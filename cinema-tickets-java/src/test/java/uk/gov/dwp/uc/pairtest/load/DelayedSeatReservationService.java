@@ -0,0 +1,24 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Wraps a SeatReservationService and delays every reservation by the injected
+ * latency before delegating.
+ */
+public class DelayedSeatReservationService implements SeatReservationService {
+
+    private final SeatReservationService delegate;
+    private final InjectedLatency latency;
+
+    public DelayedSeatReservationService(SeatReservationService delegate, InjectedLatency latency) {
+        this.delegate = delegate;
+        this.latency = latency;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        latency.pause();
+        delegate.reserveSeat(accountId, totalSeatsToAllocate);
+    }
+}
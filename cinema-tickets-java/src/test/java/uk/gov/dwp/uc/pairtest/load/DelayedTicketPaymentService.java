@@ -0,0 +1,24 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Wraps a TicketPaymentService and delays every payment by the injected latency
+ * before delegating.
+ */
+public class DelayedTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService delegate;
+    private final InjectedLatency latency;
+
+    public DelayedTicketPaymentService(TicketPaymentService delegate, InjectedLatency latency) {
+        this.delegate = delegate;
+        this.latency = latency;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        latency.pause();
+        delegate.makePayment(accountId, totalAmountToPay);
+    }
+}
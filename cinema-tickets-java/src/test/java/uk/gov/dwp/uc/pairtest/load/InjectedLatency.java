@@ -0,0 +1,82 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Artificial latency added to a fake third party call.
+ *
+ * Each call waits for a fixed base delay plus a uniformly distributed jitter.
+ * A spike probability can be given to simulate the occasional slow call
+ * (e.g. a payment gateway timing out and retrying).
+ */
+public final class InjectedLatency {
+
+    public static final InjectedLatency NONE = new InjectedLatency(0, 0, 0.0, 0);
+
+    private final long baseNanos;
+    private final long jitterNanos;
+    private final double spikeProbability;
+    private final long spikeNanos;
+
+    /**
+     * @param baseNanos        fixed delay applied to every call
+     * @param jitterNanos      upper bound of the random delay added to the base
+     * @param spikeProbability probability (0..1) that a call also incurs the spike delay
+     * @param spikeNanos       extra delay applied to spiking calls
+     */
+    public InjectedLatency(long baseNanos, long jitterNanos, double spikeProbability, long spikeNanos) {
+        if (baseNanos < 0 || jitterNanos < 0 || spikeNanos < 0) {
+            throw new IllegalArgumentException("Latency must not be negative");
+        }
+        if (spikeProbability < 0.0 || spikeProbability > 1.0) {
+            throw new IllegalArgumentException("Spike probability must be between 0 and 1");
+        }
+        this.baseNanos = baseNanos;
+        this.jitterNanos = jitterNanos;
+        this.spikeProbability = spikeProbability;
+        this.spikeNanos = spikeNanos;
+    }
+
+    public static InjectedLatency ofMicros(long baseMicros, long jitterMicros) {
+        return new InjectedLatency(TimeUnit.MICROSECONDS.toNanos(baseMicros),
+                TimeUnit.MICROSECONDS.toNanos(jitterMicros), 0.0, 0);
+    }
+
+    /**
+     * Blocks the calling thread for the configured delay.
+     */
+    public void pause() {
+        long delay = nextDelayNanos();
+        if (delay <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + delay;
+        long remaining = delay;
+        // parkNanos may return early (spuriously or on interrupt) so loop until the deadline
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    long nextDelayNanos() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = baseNanos;
+        if (jitterNanos > 0) {
+            delay += random.nextLong(jitterNanos + 1);
+        }
+        if (spikeProbability > 0.0 && random.nextDouble() < spikeProbability) {
+            delay += spikeNanos;
+        }
+        return delay;
+    }
+
+    @Override
+    public String toString() {
+        return "base=" + TimeUnit.NANOSECONDS.toMicros(baseNanos) + "us"
+                + " jitter=" + TimeUnit.NANOSECONDS.toMicros(jitterNanos) + "us"
+                + " spike=" + spikeProbability + "@" + TimeUnit.NANOSECONDS.toMicros(spikeNanos) + "us";
+    }
+}
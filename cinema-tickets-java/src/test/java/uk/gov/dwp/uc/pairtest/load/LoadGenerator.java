@@ -0,0 +1,301 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Open-loop load generator for TicketService.purchaseTickets.
+ *
+ * Requests are dispatched on a fixed schedule (one every 1/rate seconds) regardless
+ * of how quickly earlier requests complete. Latency is measured from the time a
+ * request was <em>scheduled</em> to start, not from when a worker picked it up, so
+ * time spent queued behind a slow call is counted. This avoids coordinated
+ * omission, where a stalled system silently lowers the offered load and hides
+ * the stall from the percentiles.
+ *
+ * Requests waiting for a worker are held in a queue of at most maxBacklog
+ * entries. Once it is full, further requests are dropped rather than queued, so
+ * a stalled system cannot make the generator's own heap grow without limit and
+ * distort the heap trend of a long soak. A dropped request never completes, so
+ * it is recorded at the highest trackable latency; the stall still shows in the
+ * percentiles.
+ *
+ * Every report interval a line is printed with throughput, latency percentiles,
+ * GC activity and heap usage for that interval; the totals are returned as a
+ * {@link SoakReport} at the end of the run.
+ */
+public class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int ORDER_POOL_SIZE = 8192;
+    private static final long DRAIN_TIMEOUT_MINUTES = 1;
+
+    private final TicketService ticketService;
+    private final RequestMix mix;
+    private final Config config;
+    private final PrintStream out;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+    private final Histogram accumulated = new Histogram(HIGHEST_TRACKABLE_LATENCY_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder unexpected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final List<SoakReport.HeapSample> heapSamples = new ArrayList<>();
+
+    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+    private Histogram intervalHistogram;
+    private long lastGcCount;
+    private long lastGcTimeMillis;
+    private long lastDropped;
+    private long startNanos;
+
+    public LoadGenerator(TicketService ticketService, RequestMix mix, Config config, PrintStream out) {
+        this.ticketService = ticketService;
+        this.mix = mix;
+        this.config = config;
+        this.out = out;
+    }
+
+    /**
+     * Runs the load for the configured duration and waits for in-flight requests
+     * to drain. If they have not drained within a minute the remaining workers
+     * are interrupted and the report is marked incomplete.
+     *
+     * @return the summary of the whole run
+     */
+    public SoakReport run() throws InterruptedException {
+        List<RequestMix.Order> orders = mix.generate(ORDER_POOL_SIZE, config.seed);
+        ExecutorService workers = new ThreadPoolExecutor(config.workerThreads, config.workerThreads, 0L,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.maxBacklog), daemonThreads("load-worker"));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(daemonThreads("load-reporter"));
+        HistogramLogWriter logWriter = config.histogramLog == null ? null : new HistogramLogWriter(config.histogramLog);
+
+        out.println("Load: " + config + " mix: " + mix);
+        out.printf("%10s %10s %10s %10s %10s %10s %10s %10s %10s %8s %10s %10s%n", "elapsed_s", "ops/s", "p50_us",
+                "p90_us", "p99_us", "p99.9_us", "max_us", "backlog", "dropped", "gc_n", "gc_ms", "heap_mb");
+
+        lastGcCount = gcCount();
+        lastGcTimeMillis = gcTimeMillis();
+        startNanos = System.nanoTime();
+        recorder.reset();
+        if (logWriter != null) {
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(System.currentTimeMillis());
+            logWriter.outputLegend();
+        }
+        long reportNanos = config.reportInterval.toNanos();
+        reporter.scheduleAtFixedRate(() -> report(logWriter), reportNanos, reportNanos, TimeUnit.NANOSECONDS);
+
+        dispatch(orders, workers);
+
+        workers.shutdown();
+        boolean drained = workers.awaitTermination(DRAIN_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        // Read before interrupting, which would complete the stuck requests as errors
+        long unfinished = dispatched.sum() - completed.sum() - dropped.sum();
+        if (!drained) {
+            out.println("Timed out after " + DRAIN_TIMEOUT_MINUTES + " minute(s) waiting for " + unfinished
+                    + " requests still in flight; the report is incomplete");
+            workers.shutdownNow();
+        }
+        reporter.shutdown();
+        if (!reporter.awaitTermination(DRAIN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            reporter.shutdownNow();
+        }
+        report(logWriter);
+        if (logWriter != null) {
+            logWriter.close();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        synchronized (this) {
+            return new SoakReport(elapsedNanos, completed.sum(), accepted.sum(), rejected.sum(), unexpected.sum(),
+                    errors.sum(), dropped.sum(), drained ? 0 : unfinished, accumulated.copy(), gcCount(),
+                    gcTimeMillis(), new ArrayList<>(heapSamples));
+        }
+    }
+
+    private void dispatch(List<RequestMix.Order> orders, ExecutorService workers) {
+        long intervalNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / config.ratePerSecond);
+        long endNanos = startNanos + config.duration.toNanos();
+        long intendedStart = startNanos;
+        int next = 0;
+
+        while (intendedStart < endNanos) {
+            long now = System.nanoTime();
+            if (now < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+                continue;
+            }
+            // If we have fallen behind, keep sending back to back until we catch up
+            // with the schedule; the latency of these requests still starts at their
+            // intended time.
+            RequestMix.Order order = orders.get(next);
+            next = (next + 1) % orders.size();
+            long scheduledAt = intendedStart;
+            dispatched.increment();
+            try {
+                workers.execute(() -> purchase(order, scheduledAt));
+            } catch (RejectedExecutionException e) {
+                // The backlog is full and this request will never complete
+                dropped.increment();
+                recorder.recordValue(HIGHEST_TRACKABLE_LATENCY_NANOS);
+            }
+            intendedStart += intervalNanos;
+        }
+    }
+
+    private void purchase(RequestMix.Order order, long intendedStart) {
+        boolean wasAccepted = false;
+        try {
+            ticketService.purchaseTickets(order.getAccountId(), order.getRequests());
+            wasAccepted = true;
+            accepted.increment();
+        } catch (InvalidPurchaseException e) {
+            rejected.increment();
+        } catch (RuntimeException e) {
+            errors.increment();
+        }
+        recorder.recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_LATENCY_NANOS));
+        if (wasAccepted != order.isExpectValid()) {
+            unexpected.increment();
+        }
+        completed.increment();
+    }
+
+    private synchronized void report(HistogramLogWriter logWriter) {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        accumulated.add(intervalHistogram);
+
+        long gcCount = gcCount();
+        long gcTime = gcTimeMillis();
+        long droppedSoFar = dropped.sum();
+        long heapUsed = memoryBean.getHeapMemoryUsage().getUsed();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        heapSamples.add(new SoakReport.HeapSample(elapsedSeconds, heapUsed));
+
+        double intervalSeconds = (intervalHistogram.getEndTimeStamp() - intervalHistogram.getStartTimeStamp()) / 1e3;
+        double throughput = intervalSeconds > 0 ? intervalHistogram.getTotalCount() / intervalSeconds : 0;
+        out.printf("%10.1f %10.0f %10.1f %10.1f %10.1f %10.1f %10.1f %10d %10d %8d %10d %10.1f%n", elapsedSeconds,
+                throughput, micros(intervalHistogram, 50.0), micros(intervalHistogram, 90.0),
+                micros(intervalHistogram, 99.0), micros(intervalHistogram, 99.9),
+                intervalHistogram.getMaxValue() / 1e3, dispatched.sum() - completed.sum() - droppedSoFar,
+                droppedSoFar - lastDropped, gcCount - lastGcCount, gcTime - lastGcTimeMillis,
+                heapUsed / (1024.0 * 1024.0));
+
+        if (logWriter != null) {
+            logWriter.outputIntervalHistogram(intervalHistogram);
+        }
+        lastGcCount = gcCount;
+        lastGcTimeMillis = gcTime;
+        lastDropped = droppedSoFar;
+    }
+
+    private static double micros(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    private long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            total += Math.max(0, bean.getCollectionCount());
+        }
+        return total;
+    }
+
+    private long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            total += Math.max(0, bean.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Settings for a single run.
+     */
+    public static final class Config {
+
+        private final int ratePerSecond;
+        private final Duration duration;
+        private final int workerThreads;
+        private final int maxBacklog;
+        private final Duration reportInterval;
+        private final long seed;
+        private final PrintStream histogramLog;
+
+        /**
+         * @param ratePerSecond  target request rate
+         * @param duration       how long to generate load for
+         * @param workerThreads  number of threads calling purchaseTickets
+         * @param maxBacklog     most requests that may wait for a worker; any more are dropped
+         * @param reportInterval how often to print an interval line
+         * @param seed           seed for the generated order pool
+         * @param histogramLog   optional HdrHistogram interval log output (may be null)
+         */
+        public Config(int ratePerSecond, Duration duration, int workerThreads, int maxBacklog,
+                Duration reportInterval, long seed, PrintStream histogramLog) {
+            if (ratePerSecond <= 0) {
+                throw new IllegalArgumentException("Rate must be positive");
+            }
+            if (workerThreads <= 0) {
+                throw new IllegalArgumentException("Worker threads must be positive");
+            }
+            if (maxBacklog <= 0) {
+                throw new IllegalArgumentException("Max backlog must be positive");
+            }
+            if (duration.isNegative() || duration.isZero() || reportInterval.isNegative() || reportInterval.isZero()) {
+                throw new IllegalArgumentException("Duration and report interval must be positive");
+            }
+            this.ratePerSecond = ratePerSecond;
+            this.duration = duration;
+            this.workerThreads = workerThreads;
+            this.maxBacklog = maxBacklog;
+            this.reportInterval = reportInterval;
+            this.seed = seed;
+            this.histogramLog = histogramLog;
+        }
+
+        @Override
+        public String toString() {
+            return "rate=" + ratePerSecond + "/s duration=" + duration + " threads=" + workerThreads + " maxBacklog=" + maxBacklog
+                    + " report=" + reportInterval;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
+
+/**
+ * Command line entry point for load and soak runs.
+ *
+ * All settings are read from system properties so the same command works from
+ * Maven and from a plain java command line, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=uk.gov.dwp.uc.pairtest.load.LoadGeneratorMain \
+ *     -Dload.rate=2000 -Dload.duration=PT2H -Dload.paymentLatencyUs=500:200
+ * </pre>
+ *
+ * TicketServiceImpl writes every purchase to System.out, so standard output is
+ * discarded for the duration of the run and the report is written to the
+ * original stream.
+ */
+public class LoadGeneratorMain {
+
+    public static void main(String[] args) throws InterruptedException, FileNotFoundException {
+        int rate = Integer.getInteger("load.rate", 1000);
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT1M"));
+        int threads = Integer.getInteger("load.threads", 32);
+        int maxBacklog = Integer.getInteger("load.maxBacklog", 10_000);
+        Duration reportInterval = Duration.parse(System.getProperty("load.reportInterval", "PT10S"));
+        long seed = Long.getLong("load.seed", 42L);
+
+        int[] weights = parseInts(System.getProperty("load.mix", "6:3:1"), 3);
+        double invalidFraction = Double.parseDouble(System.getProperty("load.invalidFraction", "0.05"));
+        int maxTickets = Integer.getInteger("load.maxTickets", 6);
+        RequestMix mix = new RequestMix(weights[0], weights[1], weights[2], invalidFraction, maxTickets);
+
+        InjectedLatency paymentLatency = latency("load.paymentLatencyUs");
+        InjectedLatency reservationLatency = latency("load.reservationLatencyUs");
+
+        String histogramLogPath = System.getProperty("load.histogramLog");
+        PrintStream histogramLog = histogramLogPath == null ? null : new PrintStream(histogramLogPath);
+
+        // One JVM whose ticket IDs are never stored, so node 0 cannot collide with another issuer
+        TicketServiceImpl ticketService = TicketServiceImpl.builder(
+                new DelayedTicketPaymentService(new TicketPaymentServiceImpl(), paymentLatency),
+                new DelayedSeatReservationService(new SeatReservationServiceImpl(), reservationLatency))
+                .ticketIdGenerator(new TicketIdGenerator(0)).build();
+
+        PrintStream report = System.out;
+        report.println("Payment latency: " + paymentLatency + ", reservation latency: " + reservationLatency);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        SoakReport result;
+        try {
+            LoadGenerator.Config config = new LoadGenerator.Config(rate, duration, threads, maxBacklog, reportInterval,
+                    seed, histogramLog);
+            result = new LoadGenerator(ticketService, mix, config, report).run();
+        } finally {
+            System.setOut(report);
+        }
+        result.print(report);
+    }
+
+    /**
+     * Parses "base:jitter[:spikeProbability:spike]" in microseconds.
+     */
+    private static InjectedLatency latency(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isEmpty()) {
+            return InjectedLatency.NONE;
+        }
+        String[] parts = value.split(":");
+        long base = Long.parseLong(parts[0]);
+        long jitter = parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+        double spikeProbability = parts.length > 3 ? Double.parseDouble(parts[2]) : 0.0;
+        long spike = parts.length > 3 ? Long.parseLong(parts[3]) : 0;
+        return new InjectedLatency(TimeUnit.MICROSECONDS.toNanos(base), TimeUnit.MICROSECONDS.toNanos(jitter),
+                spikeProbability, TimeUnit.MICROSECONDS.toNanos(spike));
+    }
+
+    private static int[] parseInts(String value, int expected) {
+        String[] parts = value.split(":");
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " values separated by ':' but got " + value);
+        }
+        int[] result = new int[expected];
+        for (int i = 0; i < expected; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
+
+class LoadGeneratorTest {
+
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    @Test
+    void testRunDispatchesAtTargetRateAndOutcomesMatchMix() throws InterruptedException {
+        TicketService ticketService = TicketServiceImpl.builder(
+                new DelayedTicketPaymentService(new TicketPaymentServiceImpl(), InjectedLatency.ofMicros(100, 50)),
+                new DelayedSeatReservationService(new SeatReservationServiceImpl(), InjectedLatency.NONE))
+                .ticketIdGenerator(new TicketIdGenerator(1)).build();
+        RequestMix mix = new RequestMix(6, 3, 1, 0.2, 6);
+        LoadGenerator.Config config = new LoadGenerator.Config(100, Duration.ofSeconds(1), 4, 100,
+                Duration.ofMillis(250), 7L, null);
+
+        SoakReport report = new LoadGenerator(ticketService, mix, config, DISCARD).run();
+
+        // One request every 10ms for one second
+        assertEquals(100, report.getCompleted());
+        assertEquals(report.getCompleted(), report.getAccepted() + report.getRejected());
+        assertEquals(0, report.getUnexpected(), "Every generated order should be accepted or rejected as intended");
+        assertEquals(0, report.getErrors());
+        assertEquals(0, report.getDropped());
+        assertTrue(report.isComplete());
+        assertTrue(report.getRejected() > 0, "Invalid orders should be rejected");
+        assertEquals(100, report.getLatency().getTotalCount());
+        assertTrue(report.getHeapSamples().size() >= 2, "Heap should be sampled at each report interval");
+    }
+
+    @Test
+    void testLatencyIsCorrectedForCoordinatedOmission() throws InterruptedException {
+        AtomicBoolean stalled = new AtomicBoolean();
+        // Stall the first call for 300ms; with a single worker every request scheduled
+        // during the stall has to wait behind it
+        TicketService stallingService = (accountId, ticketTypeRequests) -> {
+            if (stalled.compareAndSet(false, true)) {
+                InjectedLatency.ofMicros(TimeUnit.MILLISECONDS.toMicros(300), 0).pause();
+            }
+            return new PurchaseResult(accountId, 1, 0, 0, TicketType.ADULT.getPrice(), new long[1]);
+        };
+        LoadGenerator.Config config = new LoadGenerator.Config(100, Duration.ofSeconds(1), 1, 100,
+                Duration.ofMillis(500), 7L, null);
+
+        SoakReport report = new LoadGenerator(stallingService, RequestMix.defaultMix(), config, DISCARD).run();
+
+        Histogram latency = report.getLatency();
+        assertTrue(latency.getMaxValue() >= TimeUnit.MILLISECONDS.toNanos(300));
+        // A closed-loop measurement would only report the single stalled call
+        long delayedRequests = latency.getTotalCount() - latency.getCountBetweenValues(0,
+                TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(delayedRequests >= 15, "Requests queued behind the stall should be recorded as slow but were "
+                + delayedRequests);
+    }
+
+    @Test
+    void testRequestsBeyondMaxBacklogAreDroppedNotQueued() throws InterruptedException {
+        CountDownLatch unstall = new CountDownLatch(1);
+        // The only worker blocks on its first call until dispatch has finished
+        TicketService stalledService = (accountId, ticketTypeRequests) -> {
+            try {
+                unstall.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new PurchaseResult(accountId, 1, 0, 0, TicketType.ADULT.getPrice(), new long[1]);
+        };
+        LoadGenerator.Config config = new LoadGenerator.Config(100, Duration.ofSeconds(1), 1, 10,
+                Duration.ofMillis(500), 7L, null);
+        LoadGenerator generator = new LoadGenerator(stalledService, RequestMix.defaultMix(), config, DISCARD);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.schedule(unstall::countDown, 1200, TimeUnit.MILLISECONDS);
+        scheduler.shutdown();
+
+        SoakReport report = generator.run();
+
+        // One request in progress and ten waiting; the other 89 are dropped
+        assertEquals(11, report.getCompleted());
+        assertEquals(89, report.getDropped());
+        // Dropped requests still count, at the worst latency, so the stall is not hidden
+        Histogram latency = report.getLatency();
+        assertEquals(100, latency.getTotalCount());
+        assertTrue(latency.getValueAtPercentile(50.0) >= TimeUnit.MINUTES.toNanos(9));
+    }
+
+    @Test
+    void testRequestMixGeneratesLegalOrdersAndRequestedInvalidFraction() {
+        RequestMix mix = new RequestMix(1, 1, 1, 0.25, 25);
+
+        List<RequestMix.Order> orders = mix.generate(10_000, 1L);
+
+        long invalid = orders.stream().filter(order -> !order.isExpectValid()).count();
+        assertTrue(invalid > 2_000 && invalid < 3_000, "Expected about 25% invalid orders but got " + invalid);
+        for (RequestMix.Order order : orders) {
+            if (order.isExpectValid()) {
+                int[] counts = Arrays.stream(order.getRequests()).mapToInt(r -> r.getNoOfTickets()).toArray();
+                // requests are ADULT, CHILD, INFANT
+                assertTrue(counts[0] >= 1 && counts[2] <= counts[0]);
+                assertTrue(counts[0] + counts[1] + counts[2] <= 25);
+            }
+        }
+    }
+
+    @Test
+    void testHeapTrendIsLeastSquaresSlope() {
+        List<SoakReport.HeapSample> samples = Arrays.asList(
+                new SoakReport.HeapSample(0, 100L * 1024 * 1024),
+                new SoakReport.HeapSample(1800, 101L * 1024 * 1024),
+                new SoakReport.HeapSample(3600, 102L * 1024 * 1024));
+        SoakReport report = new SoakReport(1, 0, 0, 0, 0, 0, 0, 0, new Histogram(3), 0, 0, samples);
+
+        assertEquals(2.0, report.getHeapTrendMbPerHour(), 1e-9);
+    }
+}
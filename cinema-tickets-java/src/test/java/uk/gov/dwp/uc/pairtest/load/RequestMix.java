@@ -0,0 +1,172 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+/**
+ * Describes the shape of the generated traffic: the relative weight of each
+ * TicketType within an order and the fraction of orders that should be rejected
+ * by TicketServiceImpl.
+ *
+ * Orders are generated up front into a fixed pool so that building requests is
+ * not part of the measured latency.
+ */
+public final class RequestMix {
+
+    private static final int MAX_TICKETS_PER_PURCHASE = 25;
+
+    private final int adultWeight;
+    private final int childWeight;
+    private final int infantWeight;
+    private final double invalidFraction;
+    private final int maxTicketsPerOrder;
+
+    /**
+     * @param adultWeight        relative weight of adult tickets
+     * @param childWeight        relative weight of child tickets
+     * @param infantWeight       relative weight of infant tickets
+     * @param invalidFraction    fraction (0..1) of orders that break a validation rule
+     * @param maxTicketsPerOrder upper bound on the size of a valid order (1..25)
+     */
+    public RequestMix(int adultWeight, int childWeight, int infantWeight, double invalidFraction,
+            int maxTicketsPerOrder) {
+        if (adultWeight <= 0 || childWeight < 0 || infantWeight < 0) {
+            throw new IllegalArgumentException("Adult weight must be positive and other weights must not be negative");
+        }
+        if (invalidFraction < 0.0 || invalidFraction > 1.0) {
+            throw new IllegalArgumentException("Invalid fraction must be between 0 and 1");
+        }
+        if (maxTicketsPerOrder < 1 || maxTicketsPerOrder > MAX_TICKETS_PER_PURCHASE) {
+            throw new IllegalArgumentException("Max tickets per order must be between 1 and " + MAX_TICKETS_PER_PURCHASE);
+        }
+        this.adultWeight = adultWeight;
+        this.childWeight = childWeight;
+        this.infantWeight = infantWeight;
+        this.invalidFraction = invalidFraction;
+        this.maxTicketsPerOrder = maxTicketsPerOrder;
+    }
+
+    /**
+     * Typical traffic: mostly adults, some children, few infants, 5% invalid orders.
+     */
+    public static RequestMix defaultMix() {
+        return new RequestMix(6, 3, 1, 0.05, 6);
+    }
+
+    public double getInvalidFraction() {
+        return invalidFraction;
+    }
+
+    /**
+     * Generates a pool of orders following this mix.
+     *
+     * @param size number of orders in the pool
+     * @param seed random seed so runs are repeatable
+     */
+    public List<Order> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<Order> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long accountId = 1 + random.nextInt(1_000_000);
+            if (random.nextDouble() < invalidFraction) {
+                orders.add(invalidOrder(random, accountId));
+            } else {
+                orders.add(validOrder(random, accountId));
+            }
+        }
+        return orders;
+    }
+
+    private Order validOrder(Random random, long accountId) {
+        int tickets = 1 + random.nextInt(maxTicketsPerOrder);
+        int totalWeight = adultWeight + childWeight + infantWeight;
+        int adults = 0;
+        int children = 0;
+        int infants = 0;
+        for (int i = 0; i < tickets; i++) {
+            int pick = random.nextInt(totalWeight);
+            if (pick < adultWeight) {
+                adults++;
+            } else if (pick < adultWeight + childWeight) {
+                children++;
+            } else {
+                infants++;
+            }
+        }
+        // Keep the order legal: at least one adult and no more infants than adults
+        if (adults == 0) {
+            if (children > 0) {
+                children--;
+            } else {
+                infants--;
+            }
+            adults++;
+        }
+        while (infants > adults) {
+            infants--;
+            adults++;
+        }
+        return new Order(accountId, true, requests(adults, children, infants));
+    }
+
+    private Order invalidOrder(Random random, long accountId) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return new Order(0L, false, requests(1, 0, 0));
+            case 1:
+                return new Order(accountId, false, requests(0, 1 + random.nextInt(3), 0));
+            case 2:
+                return new Order(accountId, false, requests(1, 0, 2));
+            case 3:
+                return new Order(accountId, false, requests(MAX_TICKETS_PER_PURCHASE + 1, 0, 0));
+            default:
+                return new Order(accountId, false, requests(0, 0, 0));
+        }
+    }
+
+    private static TicketTypeRequest[] requests(int adults, int children, int infants) {
+        return new TicketTypeRequest[] {
+                TicketTypeRequest.of(TicketType.ADULT, adults),
+                TicketTypeRequest.of(TicketType.CHILD, children),
+                TicketTypeRequest.of(TicketType.INFANT, infants)
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "adult:child:infant=" + adultWeight + ":" + childWeight + ":" + infantWeight
+                + " invalid=" + invalidFraction + " maxTickets=" + maxTicketsPerOrder;
+    }
+
+    /**
+     * A pre-built purchase and whether TicketServiceImpl is expected to accept it.
+     */
+    public static final class Order {
+
+        private final long accountId;
+        private final boolean expectValid;
+        private final TicketTypeRequest[] requests;
+
+        Order(long accountId, boolean expectValid, TicketTypeRequest[] requests) {
+            this.accountId = accountId;
+            this.expectValid = expectValid;
+            this.requests = requests;
+        }
+
+        public long getAccountId() {
+            return accountId;
+        }
+
+        public boolean isExpectValid() {
+            return expectValid;
+        }
+
+        public TicketTypeRequest[] getRequests() {
+            return requests;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary of a complete load generator run.
+ */
+public final class SoakReport {
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99, 100.0};
+
+    private final long elapsedNanos;
+    private final long completed;
+    private final long accepted;
+    private final long rejected;
+    private final long unexpected;
+    private final long errors;
+    private final long dropped;
+    private final long unfinished;
+    private final Histogram latency;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final List<HeapSample> heapSamples;
+
+    SoakReport(long elapsedNanos, long completed, long accepted, long rejected, long unexpected, long errors,
+            long dropped, long unfinished, Histogram latency, long gcCount, long gcTimeMillis, List<HeapSample> heapSamples) {
+        this.elapsedNanos = elapsedNanos;
+        this.completed = completed;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.unexpected = unexpected;
+        this.errors = errors;
+        this.dropped = dropped;
+        this.unfinished = unfinished;
+        this.latency = latency;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.heapSamples = heapSamples;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Orders whose outcome did not match the mix (e.g. a valid order rejected).
+     */
+    public long getUnexpected() {
+        return unexpected;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Requests not sent because the backlog was full. Any drops mean the system
+     * could not keep up with the offered rate.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Requests still in flight when the run gave up waiting for them to finish.
+     */
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    /**
+     * @return whether every dispatched request completed or was dropped
+     */
+    public boolean isComplete() {
+        return unfinished == 0;
+    }
+
+    /**
+     * Coordinated-omission corrected latency of every request dispatched, in
+     * nanoseconds. Dropped requests are recorded at the highest trackable value.
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public double getThroughputPerSecond() {
+        return elapsedNanos > 0 ? completed / (elapsedNanos / 1e9) : 0;
+    }
+
+    public List<HeapSample> getHeapSamples() {
+        return heapSamples;
+    }
+
+    /**
+     * Least squares slope of heap usage over the run, in MB per hour. A steadily
+     * positive slope across a multi-hour soak usually means a leak.
+     */
+    public double getHeapTrendMbPerHour() {
+        int n = heapSamples.size();
+        if (n < 2) {
+            return 0.0;
+        }
+        double sumX = 0;
+        double sumY = 0;
+        for (HeapSample sample : heapSamples) {
+            sumX += sample.elapsedSeconds;
+            sumY += sample.heapUsedBytes;
+        }
+        double meanX = sumX / n;
+        double meanY = sumY / n;
+        double covariance = 0;
+        double variance = 0;
+        for (HeapSample sample : heapSamples) {
+            double dx = sample.elapsedSeconds - meanX;
+            covariance += dx * (sample.heapUsedBytes - meanY);
+            variance += dx * dx;
+        }
+        if (variance == 0) {
+            return 0.0;
+        }
+        double bytesPerSecond = covariance / variance;
+        return bytesPerSecond * 3600 / (1024.0 * 1024.0);
+    }
+
+    public void print(PrintStream out) {
+        out.println();
+        if (isComplete()) {
+            out.println("=== Soak summary ===");
+        } else {
+            out.println("=== Soak summary (INCOMPLETE: " + unfinished + " requests did not finish) ===");
+        }
+        out.printf("Elapsed: %.1f s%n", elapsedNanos / 1e9);
+        out.printf("Requests: %d completed, %d accepted, %d rejected, %d unexpected, %d errors, %d dropped%n",
+                completed, accepted, rejected, unexpected, errors, dropped);
+        out.printf("Throughput: %.1f ops/s%n", getThroughputPerSecond());
+        out.println("Latency (corrected for coordinated omission):");
+        for (double percentile : PERCENTILES) {
+            out.printf("   p%-7s %12.1f us%n", percentile, latency.getValueAtPercentile(percentile) / 1e3);
+        }
+        out.printf("GC: %d collections, %d ms total%n", gcCount, gcTimeMillis);
+        out.printf("Heap trend: %.2f MB/hour over %d samples%n", getHeapTrendMbPerHour(), heapSamples.size());
+    }
+
+    /**
+     * Heap usage observed at a report interval.
+     */
+    public static final class HeapSample {
+
+        private final double elapsedSeconds;
+        private final long heapUsedBytes;
+
+        HeapSample(double elapsedSeconds, long heapUsedBytes) {
+            this.elapsedSeconds = elapsedSeconds;
+            this.heapUsedBytes = heapUsedBytes;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedSeconds;
+        }
+
+        public long getHeapUsedBytes() {
+            return heapUsedBytes;
+        }
+    }
+}
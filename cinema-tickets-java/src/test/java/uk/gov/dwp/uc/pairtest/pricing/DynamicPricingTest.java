@@ -0,0 +1,261 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.PurchaseRequest;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.discount.DiscountEngine;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.PriceChangedException;
+import uk.gov.dwp.uc.pairtest.ticket.TicketIdGenerator;
+
+class DynamicPricingTest {
+
+    // A 10% step for every 10% of the screening sold
+    private static final int[] THRESHOLDS = { 10, 20, 30, 40, 50, 60, 70, 80, 90 };
+    private static final int[] MARKUPS = { 10, 20, 30, 40, 50, 60, 70, 80, 90 };
+
+    @Test
+    void testQuoteFollowsOccupancy() {
+        DynamicPricing pricing = new DynamicPricing(2, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+
+        PriceQuote first = pricing.quote(0, 4, 1);
+        assertEquals(0, pricing.charge(first));
+        PriceQuote second = pricing.quote(0, 1, 0);
+
+        assertEquals(0, first.getStep());
+        assertEquals(4 * 25 + 15, first.getTotal());
+        assertEquals(1, second.getStep());
+        assertEquals(30, second.getTotal());
+        assertEquals(5, pricing.getSeatsTaken(0));
+        // Other screenings are unaffected
+        assertEquals(0, pricing.quote(1, 1, 0).getStep());
+    }
+
+    @Test
+    void testStaleQuoteIsRejectedWithoutTakingSeats() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+        PriceQuote stale = pricing.quote(0, 1, 0);
+        pricing.charge(pricing.quote(0, 5, 0));
+
+        Exception exception = assertThrows(PriceChangedException.class, () -> pricing.charge(stale));
+
+        assertEquals("Price has changed since it was quoted", exception.getMessage());
+        assertEquals(5, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testQuoteWithinSameStepIsHonoured() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+        PriceQuote quote = pricing.quote(0, 1, 0);
+        pricing.charge(pricing.quote(0, 3, 0));
+
+        assertEquals(3, pricing.charge(quote));
+    }
+
+    @Test
+    void testOrderCrossingThresholdIsPricedAtItsLastSeat() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+        pricing.charge(pricing.quote(0, 2, 0));
+
+        // Seats 2 to 5; the step starts at seat 5
+        PriceQuote quote = pricing.quote(0, 4, 0);
+
+        assertEquals(1, quote.getStep());
+        assertEquals(4 * 30, quote.getTotal());
+        assertEquals(2, pricing.charge(quote));
+    }
+
+    @Test
+    void testQuoteThatWouldNowCrossThresholdIsRejected() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[] { 50 }, new int[] { 20 }));
+        pricing.charge(pricing.quote(0, 1, 0));
+        // Seats 1 to 4, all below the step
+        PriceQuote quote = pricing.quote(0, 4, 0);
+        pricing.charge(pricing.quote(0, 1, 0));
+
+        // Seats 2 to 5 would straddle the step
+        assertEquals(0, quote.getStep());
+        assertThrows(PriceChangedException.class, () -> pricing.charge(quote));
+        assertEquals(2, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testChargeBeyondCapacityIsRejected() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(4, new int[0], new int[0]));
+        pricing.charge(pricing.quote(0, 3, 0));
+
+        Exception exception = assertThrows(InvalidPurchaseException.class,
+                () -> pricing.charge(pricing.quote(0, 1, 1)));
+
+        assertEquals("Not enough seats left for this screening", exception.getMessage());
+        assertEquals(3, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testReleaseGivesSeatsBack() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[0], new int[0]));
+        PriceQuote quote = pricing.quote(0, 2, 1);
+        pricing.charge(quote);
+
+        assertTrue(pricing.release(quote));
+
+        assertEquals(0, pricing.getSeatsTaken(0));
+        assertFalse(quote.isCharged());
+    }
+
+    @Test
+    void testReleaseOnlyGivesBackSeatsOfAChargedQuoteOnce() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[0], new int[0]));
+        pricing.charge(pricing.quote(0, 3, 0));
+        PriceQuote uncharged = pricing.quote(0, 2, 0);
+        PriceQuote charged = pricing.quote(0, 2, 0);
+        pricing.charge(charged);
+
+        assertFalse(pricing.release(uncharged));
+        assertTrue(pricing.release(charged));
+        assertFalse(pricing.release(charged));
+
+        assertEquals(3, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testQuoteCanOnlyBeChargedOnce() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(10, new int[0], new int[0]));
+        PriceQuote quote = pricing.quote(0, 2, 0);
+        pricing.charge(quote);
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> pricing.charge(quote));
+
+        assertEquals("Price quote has already been charged", exception.getMessage());
+        assertEquals(2, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testRejectedChargeLeavesQuoteUncharged() {
+        DynamicPricing pricing = new DynamicPricing(1, new PriceCurve(4, new int[0], new int[0]));
+        PriceQuote quote = pricing.quote(0, 2, 0);
+        pricing.charge(pricing.quote(0, 3, 0));
+
+        assertThrows(InvalidPurchaseException.class, () -> pricing.charge(quote));
+
+        assertFalse(quote.isCharged());
+        assertFalse(pricing.release(quote));
+        assertEquals(3, pricing.getSeatsTaken(0));
+    }
+
+    @Test
+    void testQuoteFromAnotherPricingIsRejected() {
+        PriceCurve curve = new PriceCurve(10, new int[0], new int[0]);
+        PriceQuote foreign = new DynamicPricing(1, curve).quote(0, 1, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> new DynamicPricing(1, curve).charge(foreign));
+        assertThrows(IllegalArgumentException.class, () -> new DynamicPricing(1, curve).quote(1, 1, 0));
+    }
+
+    @Test
+    void testConcurrentChargesNeverDriftFromQuotes() throws InterruptedException {
+        int capacity = 20_000;
+        PriceCurve curve = new PriceCurve(capacity, THRESHOLDS, MARKUPS);
+        DynamicPricing pricing = new DynamicPricing(1, curve);
+        List<String> drift = new CopyOnWriteArrayList<>();
+        AtomicLong seatsCharged = new AtomicLong();
+
+        runConcurrently(8, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (true) {
+                PriceQuote quote = pricing.quote(0, 1 + random.nextInt(4), random.nextInt(3));
+                int seatsBefore;
+                try {
+                    seatsBefore = pricing.charge(quote);
+                } catch (PriceChangedException e) {
+                    continue;
+                } catch (InvalidPurchaseException e) {
+                    return;
+                }
+                seatsCharged.addAndGet(quote.getSeats());
+                // The quoted total must be the correct price for the seats actually taken
+                int step = curve.stepAt(seatsBefore + quote.getSeats() - 1);
+                int correctTotal = quote.getTickets(TicketType.ADULT) * curve.getPrice(step, TicketType.ADULT)
+                        + quote.getTickets(TicketType.CHILD) * curve.getPrice(step, TicketType.CHILD);
+                if (step != quote.getStep() || correctTotal != quote.getTotal()) {
+                    drift.add("Quoted " + quote.getTotal() + " at step " + quote.getStep() + " but seat "
+                            + seatsBefore + " puts the order on step " + step);
+                }
+            }
+        });
+
+        assertEquals(List.of(), drift);
+        assertEquals(seatsCharged.get(), pricing.getSeatsTaken(0));
+        assertTrue(pricing.getSeatsTaken(0) > capacity - 6);
+    }
+
+    @Test
+    void testConcurrentPurchasesPayExactlyTheQuotedTotal() throws InterruptedException {
+        PriceCurve curve = new PriceCurve(3_000, THRESHOLDS, MARKUPS);
+        DynamicPricing pricing = new DynamicPricing(1, curve);
+        Map<Long, Integer> paid = new ConcurrentHashMap<>();
+        Map<Long, Integer> quoted = new ConcurrentHashMap<>();
+        TicketServiceImpl ticketService = TicketServiceImpl.builder(paid::put, (accountId, seats) -> {
+        }).ticketIdGenerator(new TicketIdGenerator(1)).dynamicPricing(pricing).build();
+        AtomicLong nextAccountId = new AtomicLong(1);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            runConcurrently(8, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (true) {
+                    long accountId = nextAccountId.getAndIncrement();
+                    int adults = 1 + random.nextInt(4);
+                    int children = random.nextInt(3);
+                    PriceQuote quote = pricing.quote(0, adults, children);
+                    try {
+                        ticketService.purchaseTickets(PurchaseRequest.of(accountId,
+                                new TicketTypeRequest(TicketType.ADULT, adults),
+                                new TicketTypeRequest(TicketType.CHILD, children)).withQuote(quote));
+                        quoted.put(accountId, quote.getTotal());
+                    } catch (PriceChangedException e) {
+                        // Re-quoted on the next pass
+                    } catch (InvalidPurchaseException e) {
+                        return;
+                    }
+                }
+            });
+        } finally {
+            System.setOut(out);
+        }
+
+        // Every payment matches its quote, and rejected quotes were never paid
+        assertEquals(quoted, paid);
+        assertTrue(paid.size() > 500);
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(task);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,56 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+
+class PriceCurveTest {
+
+    private final PriceCurve curve = new PriceCurve(100, new int[] { 50, 80 }, new int[] { 20, 50 });
+
+    @Test
+    void testStepStartsAtThreshold() {
+        assertEquals(3, curve.getStepCount());
+        assertEquals(0, curve.stepAt(0));
+        assertEquals(0, curve.stepAt(49));
+        assertEquals(1, curve.stepAt(50));
+        assertEquals(1, curve.stepAt(79));
+        assertEquals(2, curve.stepAt(80));
+        assertEquals(2, curve.stepAt(100));
+        assertEquals(2, curve.stepAt(150));
+    }
+
+    @Test
+    void testPricesAreMarkedUpAndRoundedDown() {
+        assertEquals(25, curve.getPrice(0, TicketType.ADULT));
+        assertEquals(15, curve.getPrice(0, TicketType.CHILD));
+        assertEquals(30, curve.getPrice(1, TicketType.ADULT));
+        assertEquals(18, curve.getPrice(1, TicketType.CHILD));
+        // 37.5 and 22.5
+        assertEquals(37, curve.getPrice(2, TicketType.ADULT));
+        assertEquals(22, curve.getPrice(2, TicketType.CHILD));
+        assertEquals(0, curve.getPrice(2, TicketType.INFANT));
+    }
+
+    @Test
+    void testThresholdRoundsUpToWholeSeats() {
+        PriceCurve small = new PriceCurve(7, new int[] { 50 }, new int[] { 10 });
+
+        // 50% of 7 seats is 3.5, so the step starts at the 4th seat taken
+        assertEquals(0, small.stepAt(3));
+        assertEquals(1, small.stepAt(4));
+    }
+
+    @Test
+    void testInvalidCurveThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> new PriceCurve(100, new int[] { 80, 50 }, new int[] { 20, 50 }));
+        assertEquals("Thresholds must be ascending percentages between 1 and 100", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new PriceCurve(100, new int[] { 50 }, new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> new PriceCurve(100, new int[] { 50 }, new int[] { -1 }));
+        assertThrows(IllegalArgumentException.class, () -> new PriceCurve(0, new int[0], new int[0]));
+    }
+}
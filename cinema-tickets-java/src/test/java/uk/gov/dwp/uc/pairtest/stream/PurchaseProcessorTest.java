@@ -0,0 +1,366 @@
+package uk.gov.dwp.uc.pairtest.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+class PurchaseProcessorTest {
+
+    private ExecutorService executor;
+    private final AtomicInteger purchasesInProgress = new AtomicInteger();
+    private final AtomicInteger maxPurchasesInProgress = new AtomicInteger();
+
+    // Accepts every order except account 0, taking a random 0-2ms to "pay and reserve"
+    private final TicketService ticketService = (accountId, ticketTypeRequests) -> {
+        maxPurchasesInProgress.accumulateAndGet(purchasesInProgress.incrementAndGet(), Math::max);
+        try {
+            TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextInt(2_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            purchasesInProgress.decrementAndGet();
+        }
+        if (accountId == 0) {
+            throw new InvalidPurchaseException("Invalid account ID");
+        }
+        return new PurchaseResult(accountId, 1, 0, 0, TicketType.ADULT.getPrice(), new long[] { accountId });
+    };
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSlowSubscriberKeepsOrdersHeldBounded() throws InterruptedException {
+        int parallelism = 4;
+        OrderPublisher publisher = new OrderPublisher(200);
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, executor, parallelism,
+                PurchaseProcessor.Ordering.UNORDERED);
+        AtomicLong maxHeld = new AtomicLong();
+        // Demand well above the parallelism, so only the slots bound what is held
+        RecordingSubscriber subscriber = new RecordingSubscriber(4 * parallelism) {
+            @Override
+            public void onNext(PurchaseOutcome outcome) {
+                // Orders taken from upstream that the subscriber has not yet seen
+                maxHeld.accumulateAndGet(publisher.requested.get() - outcomes.size(), Math::max);
+                sleepQuietly(1);
+                super.onNext(outcome);
+            }
+        };
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        assertEquals(200, subscriber.outcomes.size());
+        assertTrue(maxHeld.get() <= parallelism, "Held " + maxHeld.get() + " orders");
+        assertTrue(maxPurchasesInProgress.get() <= parallelism);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void testOrderedModePreservesInputOrder() throws InterruptedException {
+        OrderPublisher publisher = new OrderPublisher(500);
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, executor, 8,
+                PurchaseProcessor.Ordering.ORDERED);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        assertEquals(500, subscriber.outcomes.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i + 1, subscriber.outcomes.get(i).getOrder().getAccountId());
+        }
+    }
+
+    @Test
+    void testUnorderedModeEmitsEveryOutcome() throws InterruptedException {
+        OrderPublisher publisher = new OrderPublisher(500);
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, executor, 8,
+                PurchaseProcessor.Ordering.UNORDERED);
+        RecordingSubscriber subscriber = new RecordingSubscriber(16);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+        List<Long> accountIds = new ArrayList<>();
+        subscriber.outcomes.forEach(outcome -> accountIds.add(outcome.getOrder().getAccountId()));
+        Collections.sort(accountIds);
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i + 1, accountIds.get(i));
+        }
+    }
+
+    @Test
+    void testRejectedPurchaseIsEmittedAsFailedOutcome() throws InterruptedException {
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, Runnable::run, 2,
+                PurchaseProcessor.Ordering.ORDERED);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        OrderPublisher publisher = new OrderPublisher(List.of(order(1L), order(0L), order(2L)));
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, subscriber.outcomes.size());
+        assertTrue(subscriber.outcomes.get(0).isSuccess());
+        assertEquals(1L, subscriber.outcomes.get(0).getResult().getTicketId(0));
+        assertFalse(subscriber.outcomes.get(1).isSuccess());
+        assertNull(subscriber.outcomes.get(1).getResult());
+        assertInstanceOf(InvalidPurchaseException.class, subscriber.outcomes.get(1).getFailure());
+        assertTrue(subscriber.outcomes.get(2).isSuccess());
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void testPurchaseThrowingErrorStillCompletesOrderedStream() throws InterruptedException {
+        TicketService failingService = (accountId, ticketTypeRequests) -> {
+            if (accountId == 2) {
+                throw new NoClassDefFoundError("Payment client");
+            }
+            return ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        };
+        PurchaseProcessor processor = new PurchaseProcessor(failingService, executor, 2,
+                PurchaseProcessor.Ordering.ORDERED);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        OrderPublisher publisher = new OrderPublisher(10);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(10, subscriber.outcomes.size());
+        assertInstanceOf(NoClassDefFoundError.class, subscriber.outcomes.get(1).getFailure());
+        assertTrue(subscriber.outcomes.get(9).isSuccess());
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void testUpstreamErrorIsDeliveredAfterInFlightOutcomes() throws InterruptedException {
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, executor, 4,
+                PurchaseProcessor.Ordering.ORDERED);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new NoOpSubscription());
+
+        processor.onNext(order(1L));
+        processor.onError(new IllegalStateException("Upstream failed"));
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, subscriber.outcomes.size());
+        assertEquals("Upstream failed", subscriber.error.getMessage());
+    }
+
+    @Test
+    void testNonPositiveRequestSignalsError() throws InterruptedException {
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, executor, 4,
+                PurchaseProcessor.Ordering.ORDERED);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        OrderPublisher publisher = new OrderPublisher(10);
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    void testCancelStopsRequestingOrders() {
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, Runnable::run, 4,
+                PurchaseProcessor.Ordering.ORDERED);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        OrderPublisher publisher = new OrderPublisher(100);
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+
+        assertEquals(2, subscriber.outcomes.size());
+        assertEquals(2, publisher.requested.get());
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    void testSecondSubscriberIsRejected() throws InterruptedException {
+        PurchaseProcessor processor = new PurchaseProcessor(ticketService, executor, 4,
+                PurchaseProcessor.Ordering.ORDERED);
+        processor.subscribe(new RecordingSubscriber(1));
+        RecordingSubscriber second = new RecordingSubscriber(1);
+
+        processor.subscribe(second);
+
+        assertTrue(second.done.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, second.error);
+    }
+
+    private static PurchaseOrder order(long accountId) {
+        return new PurchaseOrder(accountId, new TicketTypeRequest(TicketType.ADULT, 1));
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Publishes the given orders, only as many as requested.
+     */
+    private static class OrderPublisher implements Flow.Publisher<PurchaseOrder> {
+
+        final AtomicLong requested = new AtomicLong();
+        private final List<PurchaseOrder> orders;
+        private final AtomicInteger wip = new AtomicInteger();
+        private int sent;
+        volatile boolean cancelled;
+
+        OrderPublisher(List<PurchaseOrder> orders) {
+            this.orders = orders;
+        }
+
+        /**
+         * Orders for accounts 1..count.
+         */
+        OrderPublisher(int count) {
+            this(accounts(count));
+        }
+
+        private static List<PurchaseOrder> accounts(int count) {
+            List<PurchaseOrder> orders = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                orders.add(order(i));
+            }
+            return orders;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super PurchaseOrder> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    emit(subscriber);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+
+        private void emit(Flow.Subscriber<? super PurchaseOrder> subscriber) {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                while (!cancelled && sent < Math.min(requested.get(), orders.size())) {
+                    subscriber.onNext(orders.get(sent++));
+                }
+                if (!cancelled && sent == orders.size()) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class NoOpSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<PurchaseOutcome> {
+
+        final List<PurchaseOutcome> outcomes = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+        private final long batch;
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+
+        /**
+         * @param batch how many outcomes to request at a time (0 to request nothing)
+         */
+        RecordingSubscriber(long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (batch > 0) {
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(PurchaseOutcome outcome) {
+            outcomes.add(outcome);
+            if (batch > 0 && batch != Long.MAX_VALUE && outcomes.size() % batch == 0) {
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package uk.gov.dwp.uc.pairtest.ticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TicketBarcodeTest {
+
+    private static final String SYMBOLS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @ParameterizedTest
+    @ValueSource(longs = { 0L, 1L, 36L, 37L, 123_456_789_012_345L, Long.MAX_VALUE })
+    void testRoundTrip(long ticketId) {
+        String barcode = TicketBarcode.encode(ticketId);
+
+        assertEquals(TicketBarcode.LENGTH, barcode.length());
+        assertEquals(ticketId, TicketBarcode.decode(barcode));
+    }
+
+    @Test
+    void testEncodeKnownValue() {
+        // 37 = 1 * 32 + 5, check symbol 37 mod 37 = 0
+        assertEquals("00000000000150", TicketBarcode.encode(37L));
+        // 36 mod 37 = 36, the last check symbol
+        assertEquals("0000000000014U", TicketBarcode.encode(36L));
+    }
+
+    @Test
+    void testEncodeIntoBufferAtOffset() {
+        long ticketId = new TicketIdGenerator(5).nextId();
+        char[] buffer = new char[TicketBarcode.LENGTH + 2];
+
+        int written = TicketBarcode.encode(ticketId, buffer, 2);
+
+        assertEquals(TicketBarcode.LENGTH, written);
+        assertEquals(0, buffer[0]);
+        assertEquals(TicketBarcode.encode(ticketId), new String(buffer, 2, TicketBarcode.LENGTH));
+    }
+
+    @Test
+    void testEverySingleCharacterChangeIsDetected() {
+        String barcode = TicketBarcode.encode(new TicketIdGenerator(5).nextId());
+        for (int i = 0; i < TicketBarcode.LENGTH - 1; i++) {
+            for (char symbol : SYMBOLS.toCharArray()) {
+                if (symbol != barcode.charAt(i)) {
+                    String changed = barcode.substring(0, i) + symbol + barcode.substring(i + 1);
+                    assertFalse(TicketBarcode.isValid(changed), changed);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAdjacentTranspositionIsDetected() {
+        String barcode = TicketBarcode.encode(0x0123_4567_89AB_CDEFL);
+        for (int i = 0; i < TicketBarcode.LENGTH - 2; i++) {
+            if (barcode.charAt(i) != barcode.charAt(i + 1)) {
+                String swapped = barcode.substring(0, i) + barcode.charAt(i + 1) + barcode.charAt(i)
+                        + barcode.substring(i + 2);
+                assertFalse(TicketBarcode.isValid(swapped), swapped);
+            }
+        }
+    }
+
+    @Test
+    void testDecodeAcceptsLowerCaseAndConfusableCharacters() {
+        long ticketId = 1L << 5 | 1L;
+        String barcode = TicketBarcode.encode(ticketId);
+
+        assertEquals(ticketId, TicketBarcode.decode(barcode.toLowerCase()));
+        assertEquals(ticketId, TicketBarcode.decode(barcode.replace('0', 'O').replace('1', 'I')));
+        assertEquals(ticketId, TicketBarcode.decode(barcode.replace('0', 'o').replace('1', 'l')));
+    }
+
+    @Test
+    void testMalformedBarcodeThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> TicketBarcode.decode("0000"));
+        assertEquals("Barcode must be 14 characters", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> TicketBarcode.decode("0000000000000#"));
+        // First character can only carry 4 bits
+        assertThrows(IllegalArgumentException.class, () -> TicketBarcode.decode("G0000000000000"));
+        assertTrue(TicketBarcode.isValid(TicketBarcode.encode(99L)));
+        assertFalse(TicketBarcode.isValid(null));
+    }
+
+    @Test
+    void testEncodeIntoBufferDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        char[] buffer = new char[TicketBarcode.LENGTH];
+        long checksum = 0;
+        for (long id = 0; id < 20_000; id++) {
+            checksum += TicketBarcode.encode(id, buffer, 0) + buffer[0];
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (long id = 0; id < 100_000; id++) {
+            checksum += TicketBarcode.encode(id, buffer, 0) + buffer[0];
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum > 0);
+        assertTrue(allocated < 1_024, "Allocated " + allocated + " bytes encoding 100,000 barcodes");
+    }
+}
@@ -0,0 +1,164 @@
+package uk.gov.dwp.uc.pairtest.ticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+class TicketIdGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+
+    @Test
+    void testIdCarriesTimestampAndNode() {
+        TicketIdGenerator generator = new TicketIdGenerator(513, new MutableClock(NOW));
+
+        long id = generator.nextId();
+
+        assertEquals(NOW.toEpochMilli(), TicketIdGenerator.timestampOf(id));
+        assertEquals(513, TicketIdGenerator.nodeOf(id));
+        assertTrue(id > 0);
+    }
+
+    @Test
+    void testBatchIsConsecutiveAndIncreasing() {
+        TicketIdGenerator generator = new TicketIdGenerator(1, new MutableClock(NOW));
+        long[] ids = new long[27];
+
+        generator.nextIds(ids, 1, 25);
+
+        assertEquals(0, ids[0]);
+        assertEquals(0, ids[26]);
+        for (int i = 2; i <= 25; i++) {
+            assertEquals(ids[i - 1] + 1, ids[i]);
+        }
+        assertTrue(generator.nextId() > ids[25]);
+    }
+
+    @Test
+    void testSequenceOverflowBorrowsFromNextMillisecond() {
+        TicketIdGenerator generator = new TicketIdGenerator(7, new MutableClock(NOW));
+        long[] ids = new long[5_000];
+
+        generator.nextIds(ids, 0, ids.length);
+
+        assertEquals(NOW.toEpochMilli(), TicketIdGenerator.timestampOf(ids[0]));
+        assertEquals(NOW.toEpochMilli() + 1, TicketIdGenerator.timestampOf(ids[ids.length - 1]));
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+            assertEquals(7, TicketIdGenerator.nodeOf(ids[i]));
+        }
+    }
+
+    @Test
+    void testClockGoingBackwardsStillIssuesIncreasingIds() {
+        MutableClock clock = new MutableClock(NOW);
+        TicketIdGenerator generator = new TicketIdGenerator(0, clock);
+        long first = generator.nextId();
+
+        clock.advance(Duration.ofSeconds(-5));
+        long second = generator.nextId();
+        clock.advance(Duration.ofSeconds(10));
+        long third = generator.nextId();
+
+        assertTrue(second > first);
+        assertTrue(third > second);
+        assertEquals(NOW.plusSeconds(5).toEpochMilli(), TicketIdGenerator.timestampOf(third));
+    }
+
+    @Test
+    void testDifferentNodesNeverCollide() {
+        Clock clock = new MutableClock(NOW);
+        long[] node1 = new long[100];
+        long[] node2 = new long[100];
+
+        new TicketIdGenerator(1, clock).nextIds(node1, 0, node1.length);
+        new TicketIdGenerator(2, clock).nextIds(node2, 0, node2.length);
+
+        assertEquals(200, LongStream.concat(LongStream.of(node1), LongStream.of(node2)).distinct().count());
+    }
+
+    @Test
+    void testConcurrentIssueIsUnique() throws InterruptedException {
+        TicketIdGenerator generator = new TicketIdGenerator(3);
+        int threads = 8;
+        int ordersPerThread = 20_000;
+        long[] ids = new long[threads * ordersPerThread * 25];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int base = t * ordersPerThread * 25;
+            executor.execute(() -> {
+                for (int order = 0; order < ordersPerThread; order++) {
+                    generator.nextIds(ids, base + order * 25, 25);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1], "Duplicate ticket ID " + ids[i]);
+        }
+    }
+
+    @Test
+    void testInvalidNodeIdThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> new TicketIdGenerator(1024));
+        assertEquals("Node ID must be between 0 and 1023", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new TicketIdGenerator(-1));
+    }
+
+    @Test
+    void testNodeIdPropertyMustBeSetAndInRange() {
+        assertEquals(0, TicketIdGenerator.parseNodeId("0"));
+        assertEquals(1023, TicketIdGenerator.parseNodeId(" 1023 "));
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> TicketIdGenerator.parseNodeId(null));
+        assertEquals("No node ID configured: set -Dtickets.nodeId=<0-1023>, unique to this JVM, "
+                + "or supply a TicketIdGenerator", exception.getMessage());
+        exception = assertThrows(IllegalStateException.class, () -> TicketIdGenerator.parseNodeId("1024"));
+        assertEquals("tickets.nodeId must be between 0 and 1023 but was \"1024\"", exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> TicketIdGenerator.parseNodeId("node-1"));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.dwp.uc.pairtest.waitlist;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+class ScreeningWaitlistsTest {
+
+    @Test
+    void testEachScreeningHasItsOwnWaitlist() {
+        ScreeningWaitlists waitlists = new ScreeningWaitlists(16);
+
+        assertSame(waitlists.forScreening(1L), waitlists.forScreening(1L));
+        assertNotSame(waitlists.forScreening(1L), waitlists.forScreening(2L));
+    }
+
+    @Test
+    void testReleaseGrantsSeatsForThatScreeningOnly() {
+        ScreeningWaitlists waitlists = new ScreeningWaitlists(16);
+        WaitlistEntry first = waitlists.forScreening(1L).join(10L, new TicketTypeRequest(TicketType.ADULT, 1));
+        WaitlistEntry second = waitlists.forScreening(2L).join(10L, new TicketTypeRequest(TicketType.ADULT, 1));
+
+        waitlists.release(1L, 1);
+
+        assertTrue(first.isGranted());
+        assertTrue(second.isWaiting());
+    }
+
+    @Test
+    void testRemovingScreeningCompletesItsWaitersFutures() {
+        ScreeningWaitlists waitlists = new ScreeningWaitlists(16);
+        Waitlist removed = waitlists.forScreening(1L);
+        WaitlistEntry waiting = removed.join(10L, new TicketTypeRequest(TicketType.ADULT, 1));
+        WaitlistEntry other = waitlists.forScreening(2L).join(10L, new TicketTypeRequest(TicketType.ADULT, 1));
+        CompletableFuture<WaitlistEntry> granted = waiting.granted();
+
+        waitlists.remove(1L);
+
+        assertThrows(CancellationException.class, () -> granted.get(1, TimeUnit.SECONDS));
+        assertFalse(removed.isWaiting(10L));
+        assertTrue(removed.isClosed());
+        assertTrue(other.isWaiting());
+    }
+
+    @Test
+    void testInvalidCapacityThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new ScreeningWaitlists(0));
+    }
+}
@@ -0,0 +1,278 @@
+package uk.gov.dwp.uc.pairtest.waitlist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketType;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.WaitlistFullException;
+
+class WaitlistTest {
+
+    private static TicketTypeRequest adults(int count) {
+        return new TicketTypeRequest(TicketType.ADULT, count);
+    }
+
+    @Test
+    void testSeatsAreGrantedInArrivalOrder() {
+        Waitlist waitlist = new Waitlist(8);
+        List<Long> grantOrder = new ArrayList<>();
+        for (long accountId = 1; accountId <= 3; accountId++) {
+            waitlist.join(accountId, adults(2)).granted().thenAccept(entry -> grantOrder.add(entry.getAccountId()));
+        }
+
+        waitlist.release(5);
+
+        assertEquals(List.of(1L, 2L), grantOrder);
+        assertEquals(1, waitlist.getAvailableSeats());
+
+        waitlist.release(1);
+
+        assertEquals(List.of(1L, 2L, 3L), grantOrder);
+        assertEquals(0, waitlist.getAvailableSeats());
+    }
+
+    @Test
+    void testHeadOfQueueIsNotOvertakenBySmallerOrder() {
+        Waitlist waitlist = new Waitlist(8);
+        WaitlistEntry large = waitlist.join(1L, adults(4));
+        WaitlistEntry small = waitlist.join(2L, adults(1));
+
+        waitlist.release(2);
+
+        assertTrue(large.isWaiting());
+        assertTrue(small.isWaiting(), "Later buyers must not jump the queue");
+        assertEquals(2, waitlist.getAvailableSeats());
+    }
+
+    @Test
+    void testRetryFromSameBuyerReturnsExistingEntry() {
+        Waitlist waitlist = new Waitlist(8);
+
+        WaitlistEntry first = waitlist.join(1L, adults(2));
+        WaitlistEntry retry = waitlist.join(1L, adults(2));
+
+        assertSame(first, retry);
+        assertEquals(1, waitlist.size());
+    }
+
+    @Test
+    void testInfantsDoNotNeedSeats() {
+        Waitlist waitlist = new Waitlist(8);
+
+        WaitlistEntry entry = waitlist.join(1L, adults(2), new TicketTypeRequest(TicketType.INFANT, 2));
+
+        assertEquals(2, entry.getSeats());
+    }
+
+    @Test
+    void testOrderWithoutSeatsIsRejected() {
+        Waitlist waitlist = new Waitlist(8);
+
+        assertThrows(IllegalArgumentException.class, () -> waitlist.join(1L, adults(0)));
+        assertFalse(waitlist.isWaiting(1L));
+    }
+
+    @Test
+    void testPositionReflectsBuyersAhead() {
+        Waitlist waitlist = new Waitlist(8);
+        WaitlistEntry first = waitlist.join(1L, adults(1));
+        WaitlistEntry second = waitlist.join(2L, adults(1));
+        WaitlistEntry third = waitlist.join(3L, adults(1));
+
+        assertEquals(1, first.position());
+        assertEquals(2, second.position());
+        assertEquals(3, third.position());
+
+        waitlist.release(1);
+
+        assertEquals(0, first.position());
+        assertEquals(1, second.position());
+        assertEquals(2, third.position());
+    }
+
+    @Test
+    void testFullWaitlistRejectsNewBuyers() {
+        Waitlist waitlist = new Waitlist(2);
+        waitlist.join(1L, adults(1));
+        waitlist.join(2L, adults(1));
+
+        WaitlistFullException exception = assertThrows(WaitlistFullException.class,
+                () -> waitlist.join(3L, adults(1)));
+
+        assertEquals("Waitlist is full", exception.getMessage());
+        assertFalse(waitlist.isWaiting(3L));
+    }
+
+    @Test
+    void testSlotsAreReusedAfterGrant() {
+        Waitlist waitlist = new Waitlist(2);
+        for (long accountId = 1; accountId <= 10; accountId++) {
+            WaitlistEntry entry = waitlist.join(accountId, adults(1));
+            waitlist.release(1);
+            assertTrue(entry.isGranted());
+        }
+        assertEquals(0, waitlist.size());
+    }
+
+    @Test
+    void testCancelledEntryIsSkipped() {
+        Waitlist waitlist = new Waitlist(8);
+        WaitlistEntry cancelled = waitlist.join(1L, adults(2));
+        WaitlistEntry next = waitlist.join(2L, adults(2));
+
+        assertTrue(cancelled.cancel());
+        waitlist.release(2);
+
+        assertTrue(cancelled.granted().isCancelled());
+        assertThrows(CancellationException.class, () -> cancelled.granted().join());
+        assertTrue(next.isGranted());
+        assertFalse(waitlist.isWaiting(1L));
+        assertFalse(next.cancel(), "Granted entries cannot be cancelled");
+    }
+
+    @Test
+    void testCancellingBlockedHeadGrantsNextBuyer() {
+        Waitlist waitlist = new Waitlist(8);
+        WaitlistEntry large = waitlist.join(1L, adults(4));
+        WaitlistEntry small = waitlist.join(2L, adults(2));
+        waitlist.release(2);
+
+        assertTrue(large.cancel());
+
+        assertTrue(small.isGranted());
+        assertEquals(0, waitlist.getAvailableSeats());
+    }
+
+    @Test
+    void testCancelledEntriesDoNotFillWaitlist() {
+        Waitlist waitlist = new Waitlist(2);
+        WaitlistEntry first = waitlist.join(1L, adults(1));
+        WaitlistEntry second = waitlist.join(2L, adults(1));
+        first.cancel();
+        second.cancel();
+
+        WaitlistEntry entry = waitlist.join(3L, adults(1));
+
+        assertTrue(entry.isWaiting());
+        assertEquals(1, waitlist.size());
+    }
+
+    @Test
+    void testCloseCancelsWaitingEntriesAndRefusesJoins() {
+        Waitlist waitlist = new Waitlist(8);
+        WaitlistEntry granted = waitlist.join(1L, adults(1));
+        WaitlistEntry waiting = waitlist.join(2L, adults(2));
+        waitlist.release(1);
+
+        waitlist.close();
+
+        assertTrue(granted.isGranted());
+        assertTrue(waiting.granted().isCancelled());
+        assertFalse(waitlist.isWaiting(2L));
+        assertEquals(0, waitlist.size());
+        Exception exception = assertThrows(IllegalStateException.class, () -> waitlist.join(3L, adults(1)));
+        assertEquals("Waitlist is closed", exception.getMessage());
+    }
+
+    @Test
+    void testSeatsReleasedBeforeJoiningAreGrantedOnJoin() {
+        Waitlist waitlist = new Waitlist(8);
+        waitlist.release(3);
+
+        WaitlistEntry entry = waitlist.join(1L, adults(2));
+
+        assertTrue(entry.isGranted());
+        assertEquals(1, waitlist.reclaim());
+        assertEquals(0, waitlist.getAvailableSeats());
+    }
+
+    @Test
+    void testReleaseFromCallbackIsHandledWithoutRecursion() {
+        Waitlist waitlist = new Waitlist(8);
+        WaitlistEntry first = waitlist.join(1L, adults(1));
+        WaitlistEntry second = waitlist.join(2L, adults(1));
+        // The first buyer declines and hands their seat straight back
+        first.granted().thenRun(() -> waitlist.release(1));
+
+        waitlist.release(1);
+
+        assertTrue(first.isGranted());
+        assertTrue(second.isGranted());
+    }
+
+    @Test
+    void testConcurrentJoinsAndReleasesGrantEachBuyerExactlyOnce() throws InterruptedException {
+        int buyers = 2_000;
+        Waitlist waitlist = new Waitlist(buyers);
+        AtomicInteger grantedSeats = new AtomicInteger();
+        AtomicInteger grantedBuyers = new AtomicInteger();
+
+        // Each buyer retries a few times, as they would against purchaseTickets
+        runConcurrently(buyers, i -> {
+            for (int attempt = 0; attempt < 3; attempt++) {
+                WaitlistEntry entry = waitlist.join(i + 1, adults(seatsFor(i)));
+                if (attempt == 0) {
+                    entry.granted().thenAccept(granted -> {
+                        grantedSeats.addAndGet(granted.getSeats());
+                        grantedBuyers.incrementAndGet();
+                    });
+                }
+            }
+        });
+        assertEquals(buyers, waitlist.size(), "Retries should not add entries");
+
+        runConcurrently(buyers, i -> waitlist.release(seatsFor(i)));
+
+        int totalSeats = 0;
+        for (int i = 0; i < buyers; i++) {
+            totalSeats += seatsFor(i);
+        }
+        assertEquals(buyers, grantedBuyers.get());
+        assertEquals(totalSeats, grantedSeats.get());
+        assertEquals(0, waitlist.getAvailableSeats());
+        assertEquals(0, waitlist.size());
+    }
+
+    private static int seatsFor(int buyer) {
+        return 1 + (buyer % 3);
+    }
+
+    private static void runConcurrently(int tasks, IntConsumer task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            executor.execute(() -> {
+                awaitQuietly(start);
+                task.accept(index);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}